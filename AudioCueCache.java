@@ -0,0 +1,110 @@
+import javax.sound.sampled.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Short sound cues (the alarm, etc.) decoded once into an open Clip and replayed by
+ * rewinding it, so a trigger allocates nothing and never opens another mixer line.
+ * Total decoded bytes are capped; cues that don't fit are simply not played, and are
+ * not looked at again until the file changes.
+ */
+public class AudioCueCache {
+
+    private static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    // Lines currently held open by all caches, for leak checks over long runs
+    private static final AtomicInteger OPEN_LINES = new AtomicInteger();
+    private static final Metrics.Histogram OPEN_TIME = Metrics.histogram("audio.cue.open.nanos");
+
+    static {
+        Metrics.gauge("audio.openLines", OPEN_LINES::get);
+    }
+
+    private final long maxBytes;
+    private final Map<String, Clip> clips = new LinkedHashMap<>();
+    private final Map<String, Long> rejected = new HashMap<>(); // path -> file time when it was turned down
+    private long decodedBytes = 0;
+    private boolean closed = false;
+
+    public AudioCueCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public AudioCueCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static int openLines() {
+        return OPEN_LINES.get();
+    }
+
+    public synchronized long decodedBytes() {
+        return decodedBytes;
+    }
+
+    // Decodes the cue now if it isn't cached yet; returns false if it can't be used
+    public synchronized boolean preload(String path) {
+        if (closed) return false;
+        if (clips.containsKey(path)) return true;
+
+        File file = new File(path);
+        long modified = file.lastModified();
+        if (modified == 0) return false; // missing, may show up later
+        Long turnedDown = rejected.get(path);
+        if (turnedDown != null && turnedDown == modified) return false;
+
+        PerfEvents.AudioOpen event = new PerfEvents.AudioOpen();
+        event.begin();
+        long start = Metrics.start();
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(file)) {
+            AudioFormat format = stream.getFormat();
+            long bytes = stream.getFrameLength() * format.getFrameSize();
+            if (bytes <= 0 || decodedBytes + bytes > maxBytes) {
+                rejected.put(path, modified);
+                return false;
+            }
+
+            Clip clip = AudioSystem.getClip();
+            clip.open(stream);
+            OPEN_LINES.incrementAndGet();
+            clips.put(path, clip);
+            decodedBytes += bytes;
+
+            OPEN_TIME.recordSince(start);
+            event.file = file.getName();
+            event.bytes = bytes;
+            event.commit();
+            return true;
+        } catch (UnsupportedAudioFileException | IOException e) {
+            e.printStackTrace();
+            rejected.put(path, modified); // the file itself is the problem
+            return false;
+        } catch (Exception e) {
+            e.printStackTrace(); // no free line right now, try again next time
+            return false;
+        }
+    }
+
+    public synchronized void play(String path) {
+        if (!preload(path)) return;
+        Clip clip = clips.get(path);
+        clip.stop();
+        clip.setFramePosition(0);
+        clip.start();
+    }
+
+    public synchronized void close() {
+        closed = true;
+        for (Clip clip : clips.values()) {
+            clip.stop();
+            clip.close();
+            OPEN_LINES.decrementAndGet();
+        }
+        clips.clear();
+        decodedBytes = 0;
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Countdown backed by a SessionClock.nanoTime() deadline instead of a per-tick decrement.
+ * The remaining time is always derived from the clock, so a busy event thread can
+ * delay the display but never pushes the end of the session back.
+ */
+public class CountdownEngine {
+
+    private final SessionClock clock;
+    private long durationNanos;
+    private long remainingNanos;  // authoritative while paused or not started
+    private long deadlineNanos;   // authoritative while running
+    private boolean running = false;
+
+    public CountdownEngine(long duration, TimeUnit unit) {
+        this(duration, unit, SessionClock.SYSTEM);
+    }
+
+    public CountdownEngine(long duration, TimeUnit unit, SessionClock clock) {
+        this.clock = clock;
+        reset(duration, unit);
+    }
+
+    public void start() {
+        if (running || remainingNanos <= 0) return;
+        deadlineNanos = now() + remainingNanos;
+        running = true;
+    }
+
+    public void pause() {
+        if (!running) return;
+        remainingNanos = Math.max(0, deadlineNanos - now());
+        running = false;
+    }
+
+    public void resume() {
+        start();
+    }
+
+    public void reset(long duration, TimeUnit unit) {
+        durationNanos = unit.toNanos(duration);
+        remainingNanos = durationNanos;
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isFinished() {
+        return remainingNanos() == 0;
+    }
+
+    public long remainingNanos() {
+        if (!running) return remainingNanos;
+        return Math.max(0, deadlineNanos - now());
+    }
+
+    // Rounded up, so a fresh 25 minute countdown shows 25:00 until a full second has passed
+    public int remainingSeconds() {
+        long rem = remainingNanos();
+        return (int) ((rem + 999_999_999L) / 1_000_000_000L);
+    }
+
+    public long elapsedMicros() {
+        return (durationNanos - remainingNanos()) / 1_000L;
+    }
+
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    private long now() {
+        return clock.nanoTime();
+    }
+}
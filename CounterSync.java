@@ -0,0 +1,248 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Today's progress counters shared between a student's devices, conflict-free.
+ * Every (day, subject) pair is a grow-only counter with one (sessions, minutes) slot per
+ * device; a device only ever raises its own slot, and a merge keeps the larger value of
+ * each slot, so any devices that have seen the same entries show the same totals, in any
+ * order and after any time offline. Daily totals use the empty subject name.
+ * Only changed slots are sent and only changed keys are reported, so a merge costs
+ * O(changed subjects). Counters are per day, so midnight needs no reset at all.
+ * Subjects reached from another device are added here; removing one is local only.
+ * Every known slot is also kept in a local file, written before own slots are sent, so a
+ * restart picks up exactly where it left off, even with the shared folder out of reach,
+ * and this device's slots are never rebuilt from totals that include other devices.
+ */
+public class CounterSync implements Closeable {
+
+    public static final String TOTALS = "";
+    private static final int KEEP_DAYS = 7;
+
+    // One device's slot of one counter, as sent over a transport
+    public static final class Entry {
+        public final int epochDay;
+        public final String subject;
+        public final String device;
+        public final int sessions;
+        public final int minutes;
+
+        public Entry(int epochDay, String subject, String device, int sessions, int minutes) {
+            this.epochDay = epochDay;
+            this.subject = subject;
+            this.device = device;
+            this.sessions = sessions;
+            this.minutes = minutes;
+        }
+    }
+
+    public interface Listener {
+        void merged(LocalDate day, String subject, int sessions, int minutes);
+    }
+
+    private static final class Counter {
+        final int epochDay;
+        final String subject;
+        final Map<String, Long> slots = new HashMap<>(4); // device -> packed sessions/minutes
+
+        Counter(int epochDay, String subject) {
+            this.epochDay = epochDay;
+            this.subject = subject;
+        }
+
+        long total() {
+            int sessions = 0;
+            int minutes = 0;
+            for (long packed : slots.values()) {
+                sessions += SubjectRegistry.sessionsOf(packed);
+                minutes += SubjectRegistry.minutesOf(packed);
+            }
+            return pack(sessions, minutes);
+        }
+
+        long slot(String device) {
+            Long packed = slots.get(device);
+            return packed == null ? 0 : packed;
+        }
+    }
+
+    private final String deviceId;
+    private final SyncTransport transport;
+    private final File stateFile; // every known slot, one transport line each
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final Set<Counter> dirty = new LinkedHashSet<>();   // own slots not yet published
+    private final Set<Counter> changed = new LinkedHashSet<>(); // totals not yet reported
+    private boolean unsaved = false;                            // slots changed since saveState()
+
+    public CounterSync(String deviceId, SyncTransport transport, File stateFile) {
+        this.deviceId = deviceId;
+        this.transport = transport;
+        this.stateFile = stateFile;
+    }
+
+    // Sync through the shared folder from -Dstrawberry.sync.dir, or null when not set
+    public static CounterSync startIfEnabled(File deviceFile, File stateFile) {
+        String dir = System.getProperty("strawberry.sync.dir");
+        if (dir == null) return null;
+        try {
+            String device = deviceId(deviceFile);
+            return new CounterSync(device, new SharedDirectoryTransport(new File(dir), device), stateFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // This machine's id, created on first use
+    public static String deviceId(File file) throws IOException {
+        if (file.exists()) {
+            String id = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+            if (!id.isEmpty()) return id;
+        }
+        String id = UUID.randomUUID().toString();
+        Files.write(file.toPath(), (id + "\n").getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+
+    public String deviceId() {
+        return deviceId;
+    }
+
+    // One session finished on this device
+    public synchronized void recordLocal(LocalDate day, String subject, int minutes) {
+        bump(counter((int) day.toEpochDay(), TOTALS), 1, minutes);
+        if (subject != null) bump(counter((int) day.toEpochDay(), subject), 1, minutes);
+    }
+
+    // Loads the slots saved by an earlier run and queues this device's own to be sent again.
+    // Returns false the first time sync is used here, when there is nothing to load.
+    public synchronized boolean restore() throws IOException {
+        if (!stateFile.exists()) return false;
+        for (String line : Files.readAllLines(stateFile.toPath(), StandardCharsets.UTF_8)) {
+            Entry e = SharedDirectoryTransport.parse(line);
+            if (e == null) continue;
+            merge(e);
+            if (e.device.equals(deviceId)) dirty.add(counter(e.epochDay, e.subject));
+        }
+        return true;
+    }
+
+    // Takes over progress this device made before sync was ever on. Only valid then: later
+    // on, what the device shows includes other devices' counts
+    public synchronized void adopt(LocalDate day, String subject, int sessions, int minutes) {
+        Counter c = counter((int) day.toEpochDay(), subject == null ? TOTALS : subject);
+        long own = c.slot(deviceId);
+        bump(c, Math.max(0, sessions - SubjectRegistry.sessionsOf(own)),
+            Math.max(0, minutes - SubjectRegistry.minutesOf(own)));
+    }
+
+    // Sends this device's changed slots
+    public synchronized void push() throws IOException {
+        if (transport.needsCompaction()) {
+            prune();
+            saveState();
+            List<Entry> current = new ArrayList<>();
+            for (Counter c : counters.values()) {
+                if (c.slots.containsKey(deviceId)) current.add(entry(c, deviceId));
+            }
+            transport.compact(current);
+            dirty.clear();
+            return;
+        }
+        if (unsaved) saveState(); // before anyone sees new own values, so a restart never starts below them
+        if (dirty.isEmpty()) return;
+        List<Entry> delta = new ArrayList<>(dirty.size());
+        for (Counter c : dirty) delta.add(entry(c, deviceId));
+        transport.publish(delta);
+        dirty.clear();
+    }
+
+    // Merges whatever the other devices have sent since the last pull
+    public synchronized void pull() throws IOException {
+        transport.poll(this::merge);
+    }
+
+    public synchronized void merge(Entry e) {
+        Counter c = counter(e.epochDay, e.subject);
+        long old = c.slot(e.device);
+        int sessions = Math.max(SubjectRegistry.sessionsOf(old), e.sessions);
+        int minutes = Math.max(SubjectRegistry.minutesOf(old), e.minutes);
+        long merged = pack(sessions, minutes);
+        if (merged == old) return;
+        c.slots.put(e.device, merged);
+        changed.add(c);
+        unsaved = true;
+    }
+
+    // Reports the merged totals of every counter that changed since the last call
+    public synchronized void drainChanges(Listener listener) {
+        for (Counter c : changed) {
+            long total = c.total();
+            listener.merged(LocalDate.ofEpochDay(c.epochDay), c.subject,
+                SubjectRegistry.sessionsOf(total), SubjectRegistry.minutesOf(total));
+        }
+        changed.clear();
+    }
+
+    public synchronized long merged(LocalDate day, String subject) {
+        Counter c = counters.get(key((int) day.toEpochDay(), subject));
+        return c == null ? 0 : c.total();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (unsaved) saveState();
+        transport.close();
+    }
+
+    private void bump(Counter c, int sessions, int minutes) {
+        if (sessions == 0 && minutes == 0) return;
+        long own = c.slot(deviceId);
+        c.slots.put(deviceId, pack(SubjectRegistry.sessionsOf(own) + sessions, SubjectRegistry.minutesOf(own) + minutes));
+        dirty.add(c);
+        changed.add(c);
+        unsaved = true;
+    }
+
+    private void saveState() throws IOException {
+        int oldest = (int) LocalDate.now().toEpochDay() - KEEP_DAYS;
+        List<Entry> all = new ArrayList<>();
+        for (Counter c : counters.values()) {
+            if (c.epochDay < oldest) continue;
+            for (String device : c.slots.keySet()) all.add(entry(c, device));
+        }
+        File tmp = new File(stateFile.getPath() + ".tmp");
+        Files.write(tmp.toPath(), SharedDirectoryTransport.format(all));
+        Files.move(tmp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        unsaved = false;
+    }
+
+    private Counter counter(int epochDay, String subject) {
+        return counters.computeIfAbsent(key(epochDay, subject), k -> new Counter(epochDay, subject));
+    }
+
+    private Entry entry(Counter c, String device) {
+        long packed = c.slot(device);
+        return new Entry(c.epochDay, c.subject, device, SubjectRegistry.sessionsOf(packed), SubjectRegistry.minutesOf(packed));
+    }
+
+    // Old days only matter for late deltas; drop them when rewriting
+    private void prune() {
+        int oldest = (int) LocalDate.now().toEpochDay() - KEEP_DAYS;
+        counters.values().removeIf(c -> c.epochDay < oldest);
+        dirty.removeIf(c -> c.epochDay < oldest);
+        changed.removeIf(c -> c.epochDay < oldest);
+    }
+
+    private static String key(int epochDay, String subject) {
+        return epochDay + "\t" + subject;
+    }
+
+    private static long pack(int sessions, int minutes) {
+        return ((long) sessions << 32) | (minutes & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,79 @@
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Fires once when the local date moves forward. It sleeps until the next local
+ * midnight in the clock's time zone, but never longer than a minute: the sleep runs
+ * on the monotonic clock, so a wall-clock step, time-zone/DST change or resume from
+ * suspend is noticed within a minute, as with the old 60 s poll. A clock set back
+ * to an earlier day is ignored.
+ * The listener gets (closed day, new day) on the scheduler's thread.
+ */
+public class DayRolloverService implements AutoCloseable {
+
+    private static final long MAX_SLEEP_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final SessionScheduler scheduler;
+    private final SessionClock clock;
+    private final BiConsumer<LocalDate, LocalDate> listener;
+    private LocalDate current;
+    private SessionScheduler.Timeout pending;
+    private boolean closed = false;
+
+    public DayRolloverService(SessionScheduler scheduler, LocalDate current,
+                              BiConsumer<LocalDate, LocalDate> listener) {
+        this(scheduler, SessionClock.SYSTEM, current, listener);
+    }
+
+    public DayRolloverService(SessionScheduler scheduler, SessionClock clock, LocalDate current,
+                              BiConsumer<LocalDate, LocalDate> listener) {
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.current = current;
+        this.listener = listener;
+    }
+
+    // Checks right away (the saved day may already be over), then follows midnights
+    public synchronized void start() {
+        if (closed || pending != null) return;
+        pending = scheduler.schedule(this::check, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized LocalDate currentDay() {
+        return current;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (pending != null) pending.cancel();
+        pending = null;
+    }
+
+    private void check() {
+        LocalDate closedDay = null;
+        LocalDate today;
+        synchronized (this) {
+            if (closed) return;
+            ZoneId zone = clock.zone();
+            ZonedDateTime now = clock.now();
+            today = now.toLocalDate();
+            // Only forward: a clock set back across midnight must not wipe today's counters again
+            if (today.isAfter(current)) {
+                closedDay = current;
+                current = today;
+            }
+
+            // Next local midnight, honouring DST gaps via atStartOfDay
+            ZonedDateTime next = current.plusDays(1).atStartOfDay(zone);
+            long delay = Math.min(Duration.between(now, next).toNanos() + SLACK_NANOS, MAX_SLEEP_NANOS);
+            pending = scheduler.schedule(this::check, Math.max(delay, SLACK_NANOS), TimeUnit.NANOSECONDS);
+        }
+        if (closedDay != null) listener.accept(closedDay, today);
+    }
+}
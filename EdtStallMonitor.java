@@ -0,0 +1,74 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long each event on the dispatch thread takes, by pushing a timing
+ * EventQueue in front of the system one. Enabled with -Dstrawberry.edtMonitor=true;
+ * events slower than -Dstrawberry.edtMonitor.thresholdMs (default 4) are logged,
+ * and the worst one seen is printed at exit.
+ */
+public class EdtStallMonitor extends EventQueue {
+
+    private final long thresholdNanos;
+    private volatile long maxNanos = 0;
+    private volatile String maxEvent = "";
+    private volatile long slowEvents = 0;
+
+    private EdtStallMonitor(long thresholdNanos) {
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    // Returns the installed monitor, or null when it isn't enabled
+    public static EdtStallMonitor installIfEnabled() {
+        if (!Boolean.getBoolean("strawberry.edtMonitor")) return null;
+        long thresholdMs = Long.getLong("strawberry.edtMonitor.thresholdMs", 4);
+        EdtStallMonitor monitor = new EdtStallMonitor(TimeUnit.MILLISECONDS.toNanos(thresholdMs));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(monitor);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.println(monitor.summary())));
+        return monitor;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long took = System.nanoTime() - start;
+            if (took > maxNanos) {
+                maxNanos = took;
+                maxEvent = describe(event);
+            }
+            if (took > thresholdNanos) {
+                slowEvents++;
+                System.err.printf("EDT stall: %.2f ms in %s%n", took / 1e6, describe(event));
+            }
+        }
+    }
+
+    public long maxStallNanos() {
+        return maxNanos;
+    }
+
+    public long slowEvents() {
+        return slowEvents;
+    }
+
+    public void resetMax() {
+        maxNanos = 0;
+        maxEvent = "";
+    }
+
+    public String summary() {
+        return String.format("EDT max stall %.2f ms (%s), %d events over %d ms",
+            maxNanos / 1e6, maxEvent, slowEvents, TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+    }
+
+    private static String describe(AWTEvent event) {
+        String s = event.paramString();
+        int comma = s.indexOf(',');
+        return event.getClass().getSimpleName() + "[" + (comma < 0 ? s : s.substring(0, comma)) + "]";
+    }
+}
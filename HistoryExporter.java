@@ -0,0 +1,161 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the session history to CSV or JSON, one row per completed session
+ * (date, subject, minutes). Rows go straight from HistoryStore.scan() into a buffered
+ * writer, so memory stays flat however many years of history there are.
+ * Exports can take a while; run them off the IoExecutor that saves progress.
+ * The format follows the file name: .csv or .json, plus .gz to compress.
+ */
+public class HistoryExporter {
+
+    public static final String CSV = "csv";
+    public static final String JSON = "json";
+
+    // Bounds that cover every record the store can hold
+    public static final LocalDate FIRST_DAY = LocalDate.ofEpochDay(0);
+    public static final LocalDate LAST_DAY = LocalDate.ofEpochDay(Integer.MAX_VALUE - 1);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final Metrics.Counter ROWS = Metrics.counter("export.rows");
+    private static final Metrics.Counter BYTES = Metrics.counter("export.bytesWritten");
+
+    // What one export produced, for the status line and the CLI's MB/s figure
+    public static final class Result {
+        public final long rows;
+        public final long bytes;
+        public final long nanos;
+
+        Result(long rows, long bytes, long nanos) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / (nanos / 1e9) / (1024 * 1024);
+        }
+    }
+
+    private final HistoryStore store;
+    private final String format;
+    private String[] names = new String[0]; // escaped subject names by id, filled lazily
+
+    public HistoryExporter(HistoryStore store, String format) {
+        this.store = store;
+        this.format = format;
+    }
+
+    public static String formatOf(File file) {
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        return name.endsWith(".json") ? JSON : CSV;
+    }
+
+    public static Result export(HistoryStore store, LocalDate from, LocalDate to, File file) throws IOException {
+        // A store that isn't open would scan as empty and look like a successful export
+        if (!store.isOpen()) throw new IOException("History isn't open");
+        boolean gzip = file.getName().toLowerCase().endsWith(".gz");
+        try (OutputStream out = new FileOutputStream(file);
+             OutputStream sink = gzip ? new GZIPOutputStream(out, BUFFER_BYTES) : out) {
+            return new HistoryExporter(store, formatOf(file)).write(from, to, sink);
+        }
+    }
+
+    // Writes every session with from <= date <= to; the stream is flushed, not closed.
+    // bytes counts the uncompressed text.
+    public Result write(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        CountingStream counted = new CountingStream(out);
+        Writer w = new BufferedWriter(new OutputStreamWriter(counted, StandardCharsets.UTF_8), BUFFER_BYTES);
+        long[] rows = {0};
+        int[] lastDay = {Integer.MIN_VALUE};
+        String[] lastDate = {null};
+        boolean json = JSON.equals(format);
+
+        w.write(json ? "[" : "date,subject,minutes\n");
+        try {
+            store.scan(from, to, (day, id, minutes) -> {
+                // Records are in date order, so the formatted date changes rarely
+                if (day != lastDay[0]) {
+                    lastDay[0] = day;
+                    lastDate[0] = LocalDate.ofEpochDay(day).toString();
+                }
+                try {
+                    if (json) {
+                        w.write(rows[0] == 0 ? "\n{\"date\":\"" : ",\n{\"date\":\"");
+                        w.write(lastDate[0]);
+                        w.write("\",\"subject\":");
+                        w.write(name(id));
+                        w.write(",\"minutes\":");
+                        w.write(Integer.toString(minutes));
+                        w.write('}');
+                    } else {
+                        w.write(lastDate[0]);
+                        w.write(',');
+                        w.write(name(id));
+                        w.write(',');
+                        w.write(Integer.toString(minutes));
+                        w.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (json) w.write(rows[0] == 0 ? "]\n" : "\n]\n");
+        w.flush();
+
+        ROWS.add(rows[0]);
+        BYTES.add(counted.count);
+        return new Result(rows[0], counted.count, System.nanoTime() - start);
+    }
+
+    private String name(int id) {
+        if (id < 0) return JSON.equals(format) ? "null" : "";
+        if (id >= names.length) {
+            String[] grown = new String[Math.max(id + 1, names.length * 2)];
+            System.arraycopy(names, 0, grown, 0, names.length);
+            names = grown;
+        }
+        String n = names[id];
+        if (n == null) {
+            String raw = store.subjectName(id);
+            if (raw == null) raw = "";
+            n = JSON.equals(format) ? StatusSnapshot.quote(raw) : csvField(raw);
+            names[id] = n;
+        }
+        return n;
+    }
+
+    private static String csvField(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class CountingStream extends FilterOutputStream {
+        long count = 0;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
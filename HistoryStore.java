@@ -0,0 +1,219 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every completed session across all days, kept as fixed 8-byte records
+ * (int epoch day, short subject id, short minutes) in date order.
+ * Because records are sorted and fixed-width, the data file is its own index:
+ * a date range is found by binary search and only that slice is scanned.
+ * Subject names live in a separate dictionary file, one name per line, id = line number.
+ */
+public class HistoryStore implements Closeable {
+
+    public static final int RECORD_BYTES = 8;
+    public static final int NO_SUBJECT = -1;
+
+    public interface Visitor {
+        void visit(int epochDay, int subjectId, int minutes);
+    }
+
+    private final File dataFile;
+    private final File subjectsFile;
+    private final List<String> subjectNames = new ArrayList<>();
+    private final Map<String, Integer> subjectIds = new HashMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private FileChannel data;
+    private Writer subjectsOut;
+    private int lastDay = Integer.MIN_VALUE;
+
+    public HistoryStore(File dataFile, File subjectsFile) {
+        this.dataFile = dataFile;
+        this.subjectsFile = subjectsFile;
+    }
+
+    public synchronized boolean isOpen() {
+        return data != null;
+    }
+
+    public synchronized void open() throws IOException {
+        if (data != null) return;
+
+        // Drop a name cut off mid-write, it can't be referenced by any record yet
+        if (subjectsFile.exists()) {
+            byte[] bytes = Files.readAllBytes(subjectsFile.toPath());
+            int end = bytes.length;
+            while (end > 0 && bytes[end - 1] != '\n') end--;
+            if (end > 0) {
+                String text = new String(bytes, 0, end - 1, StandardCharsets.UTF_8);
+                for (String name : text.split("\n", -1)) {
+                    subjectIds.putIfAbsent(name, subjectNames.size());
+                    subjectNames.add(name);
+                }
+            }
+            if (end < bytes.length) {
+                try (FileChannel ch = FileChannel.open(subjectsFile.toPath(), StandardOpenOption.WRITE)) {
+                    ch.truncate(end);
+                }
+            }
+        }
+        subjectsOut = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(subjectsFile, true), StandardCharsets.UTF_8));
+
+        data = FileChannel.open(dataFile.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = data.size() - data.size() % RECORD_BYTES; // drop a torn last record
+        data.truncate(size);
+        data.position(size);
+        if (size > 0) lastDay = readDay(data, size / RECORD_BYTES - 1);
+    }
+
+    public synchronized void record(LocalDate day, String subject, int minutes) throws IOException {
+        // Keep the file sorted even if the clock jumps backwards
+        int epochDay = Math.max((int) day.toEpochDay(), lastDay);
+        int id = subject == null ? NO_SUBJECT : subjectId(subject);
+
+        record.clear();
+        record.putInt(epochDay).putShort((short) id).putShort((short) minutes).flip();
+        while (record.hasRemaining()) data.write(record);
+        lastDay = epochDay;
+    }
+
+    public synchronized long recordCount() throws IOException {
+        return data.size() / RECORD_BYTES;
+    }
+
+    public synchronized String subjectName(int id) {
+        return id >= 0 && id < subjectNames.size() ? subjectNames.get(id) : null;
+    }
+
+    public synchronized int subjectIdOf(String name) {
+        Integer id = subjectIds.get(name);
+        return id == null ? NO_SUBJECT : id;
+    }
+
+    // Visits every record with from <= day <= to, oldest first.
+    // Records added while the scan runs are not visited.
+    public void scan(LocalDate from, LocalDate to, Visitor visitor) throws IOException {
+        long first;
+        long last;
+        synchronized (this) {
+            if (data == null) return; // not opened yet
+            long count = data.size() / RECORD_BYTES;
+            if (count == 0) return;
+            first = lowerBound((int) from.toEpochDay(), count);
+            last = lowerBound((int) to.toEpochDay() + 1, count);
+        }
+        scanRange(first, last, visitor);
+    }
+
+    // Visits records from the given index to the end; returns the index it stopped at
+    public long scanFrom(long first, Visitor visitor) throws IOException {
+        long count;
+        synchronized (this) {
+            if (data == null) return first;
+            count = data.size() / RECORD_BYTES;
+        }
+        scanRange(Math.min(first, count), count, visitor);
+        return count;
+    }
+
+    // Only mapping a chunk takes the lock; records are never rewritten once appended, so the
+    // visitor runs unlocked and a long export doesn't hold up record() or other readers
+    private void scanRange(long first, long last, Visitor visitor) throws IOException {
+        final long chunkRecords = 1 << 16;
+        for (long start = first; start < last; start += chunkRecords) {
+            long n = Math.min(chunkRecords, last - start);
+            MappedByteBuffer buf;
+            synchronized (this) {
+                if (data == null) return; // closed meanwhile
+                buf = data.map(FileChannel.MapMode.READ_ONLY, start * RECORD_BYTES, n * RECORD_BYTES);
+            }
+            for (long i = 0; i < n; i++) {
+                int day = buf.getInt();
+                int id = buf.getShort();
+                int minutes = buf.getShort();
+                visitor.visit(day, id, minutes);
+            }
+        }
+    }
+
+    public synchronized Map<String, Long> minutesPerSubject(LocalDate from, LocalDate to) throws IOException {
+        long[] perId = new long[subjectNames.size() + 1]; // last slot is "no subject"
+        scan(from, to, (day, id, minutes) -> perId[id < 0 ? perId.length - 1 : id] += minutes);
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int id = 0; id < subjectNames.size(); id++) {
+            if (perId[id] > 0) result.put(subjectNames.get(id), perId[id]);
+        }
+        return result;
+    }
+
+    public synchronized long[] minutesPerDay(LocalDate from, LocalDate to) throws IOException {
+        int fromDay = (int) from.toEpochDay();
+        long[] perDay = new long[(int) (to.toEpochDay() - fromDay + 1)];
+        scan(from, to, (day, id, minutes) -> perDay[day - fromDay] += minutes);
+        return perDay;
+    }
+
+    public synchronized void sync() throws IOException {
+        if (data == null) return;
+        subjectsOut.flush();
+        data.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (data == null) return;
+        sync();
+        subjectsOut.close();
+        data.close();
+        data = null;
+    }
+
+    private int subjectId(String subject) throws IOException {
+        String name = SubjectRegistry.normalize(subject); // as it's written below and read back by open()
+        Integer id = subjectIds.get(name);
+        if (id != null) return id;
+        if (subjectNames.size() >= Short.MAX_VALUE) return NO_SUBJECT;
+
+        id = subjectNames.size();
+        subjectNames.add(name);
+        subjectIds.put(name, id);
+        // Name must be on disk before any record points at it
+        subjectsOut.write(name);
+        subjectsOut.write('\n');
+        subjectsOut.flush();
+        return id;
+    }
+
+    // First record index whose day is >= epochDay
+    private long lowerBound(int epochDay, long count) throws IOException {
+        long lo = 0, hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (readDay(data, mid) < epochDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int readDay(FileChannel ch, long index) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4);
+        long pos = index * RECORD_BYTES;
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) throw new EOFException();
+        }
+        return buf.getInt(0);
+    }
+}
@@ -0,0 +1,123 @@
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One background thread for file and audio work, so the event dispatch thread never
+ * waits on a disk or a decoder. Tasks run strictly in submission order, which keeps
+ * journal appends and snapshots consistent with the order the UI produced them.
+ * A coalesced task that is still queued at the tail is replaced instead of queued again.
+ */
+public class IoExecutor implements AutoCloseable {
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Object lock = new Object();
+    private CoalescedTask tail; // guarded by lock: last queued task, if it was coalescable
+
+    public IoExecutor() {
+        this("strawberry-io");
+    }
+
+    public IoExecutor(String threadName) {
+        executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    public void execute(Runnable task) {
+        synchronized (lock) {
+            tail = null;
+            executor.execute(guard(task));
+        }
+    }
+
+    // Replaces the queued task with the same key if nothing was queued after it
+    public void executeCoalesced(String key, Runnable task) {
+        synchronized (lock) {
+            if (tail != null && tail.key.equals(key) && tail.replace(task)) return;
+            CoalescedTask t = new CoalescedTask(key, task);
+            tail = t;
+            executor.execute(t);
+        }
+    }
+
+    // Runs work in the background and hands the result to the EDT
+    public <T> void submit(Callable<T> work, Consumer<T> onEdt) {
+        execute(() -> {
+            T result;
+            try {
+                result = work.call();
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+            SwingUtilities.invokeLater(() -> onEdt.accept(result));
+        });
+    }
+
+    // Wakeups on the same thread, for work like the midnight rollover
+    public SessionScheduler scheduler() {
+        return (task, delay, unit) -> {
+            ScheduledFuture<?> f = executor.schedule(guard(task), delay, unit);
+            return () -> f.cancel(false);
+        };
+    }
+
+    // Runs what is already queued, then stops; waits at most the given time
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        shutdown(2, TimeUnit.SECONDS);
+    }
+
+    private static Runnable guard(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        };
+    }
+
+    private final class CoalescedTask implements Runnable {
+        final String key;
+        private Runnable task; // guarded by lock, null once started
+
+        CoalescedTask(String key, Runnable task) {
+            this.key = key;
+            this.task = task;
+        }
+
+        boolean replace(Runnable newer) {
+            if (task == null) return false;
+            task = newer;
+            return true;
+        }
+
+        @Override
+        public void run() {
+            Runnable r;
+            synchronized (lock) {
+                r = task;
+                task = null;
+                if (tail == this) tail = null;
+            }
+            if (r != null) guard(r).run();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Break music found in a few folders, with what we know about each track kept in a
+ * small index file (path, format, duration, size, mtime; one tab-separated line each).
+ * A rescan only probes files whose size or mtime changed, so startup stays cheap
+ * however large the music folders are.
+ * Folders come from -Dstrawberry.music.dirs (separated like a class path), else just the
+ * original D:\Documents\Music folder if it exists; ~/Music is only scanned when listed there.
+ * Scans hold the library's lock, but pickRandom() reads a published copy of the playable
+ * tracks, so players never wait for a scan.
+ */
+public class MusicLibrary {
+
+    private static final int MAX_DEPTH = 4;
+    private static final File LEGACY_DIR = new File("D:\\Documents\\Music"); // where break music used to be listed from
+    private static final String UNPLAYABLE = "-";
+    private static final Metrics.Histogram RESCAN_TIME = Metrics.histogram("music.rescan.nanos");
+
+    public static final class Track {
+        public final String path;
+        public final String format;       // e.g. "WAVE", or "-" if Java Sound can't play it
+        public final long durationMillis; // -1 if unknown
+        public final long size;
+        public final long lastModified;
+
+        Track(String path, String format, long durationMillis, long size, long lastModified) {
+            this.path = path;
+            this.format = format;
+            this.durationMillis = durationMillis;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public File file() {
+            return new File(path);
+        }
+
+        boolean playable() {
+            return !UNPLAYABLE.equals(format);
+        }
+    }
+
+    private final List<File> dirs;
+    private final File indexFile;
+    private final Set<String> excluded = new HashSet<>(); // absolute paths that are not music, like the alarm
+    private final Map<String, Track> tracks = new LinkedHashMap<>();
+    private volatile List<Track> playable = Collections.emptyList(); // replaced whole after each scan
+
+    public MusicLibrary(List<File> dirs, File indexFile, File... excluded) {
+        this.dirs = dirs;
+        this.indexFile = indexFile;
+        for (File f : excluded) this.excluded.add(f.getAbsolutePath());
+    }
+
+    public static List<File> defaultDirs() {
+        String prop = System.getProperty("strawberry.music.dirs");
+        List<File> out = new ArrayList<>();
+        if (prop == null) {
+            if (LEGACY_DIR.isDirectory()) out.add(LEGACY_DIR);
+        } else {
+            for (String dir : prop.split(File.pathSeparator)) {
+                if (!dir.trim().isEmpty()) out.add(new File(dir.trim()));
+            }
+        }
+        return out;
+    }
+
+    // Reads the saved index, then brings it up to date with the folders
+    public synchronized void open() throws IOException {
+        tracks.clear();
+        if (indexFile.exists()) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String[] f = line.split("\t");
+                    if (f.length != 5) continue; // torn or foreign line, the rescan will re-probe
+                    try {
+                        tracks.put(f[0], new Track(f[0], f[1],
+                            Long.parseLong(f[2]), Long.parseLong(f[3]), Long.parseLong(f[4])));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        rescan();
+    }
+
+    // Returns how many index entries were added, changed or dropped
+    public synchronized int rescan() throws IOException {
+        long start = Metrics.start();
+        Set<String> extensions = new HashSet<>();
+        for (AudioFileFormat.Type type : AudioSystem.getAudioFileTypes()) {
+            extensions.add(type.getExtension().toLowerCase());
+        }
+
+        Map<String, Track> seen = new LinkedHashMap<>();
+        int changed = 0;
+        for (File dir : dirs) {
+            if (!dir.isDirectory()) continue;
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> walk = Files.walk(dir.toPath(), MAX_DEPTH)) {
+                walk.filter(Files::isRegularFile).filter(p -> extensions.contains(extensionOf(p))).forEach(files::add);
+            } catch (IOException | UncheckedIOException e) {
+                e.printStackTrace();
+            }
+            for (Path p : files) {
+                File file = p.toFile();
+                String path = file.getAbsolutePath();
+                if (excluded.contains(path)) continue;
+                long size = file.length();
+                long mtime = file.lastModified();
+                Track t = tracks.get(path);
+                if (t == null || t.size != size || t.lastModified != mtime) {
+                    t = probe(path, file, size, mtime);
+                    changed++;
+                }
+                seen.put(path, t);
+            }
+        }
+        for (String path : tracks.keySet()) {
+            if (!seen.containsKey(path)) changed++; // deleted or moved away
+        }
+
+        tracks.clear();
+        tracks.putAll(seen);
+        List<Track> nowPlayable = new ArrayList<>();
+        for (Track t : tracks.values()) {
+            if (t.playable()) nowPlayable.add(t);
+        }
+        playable = Collections.unmodifiableList(nowPlayable);
+        if (changed > 0 || !indexFile.exists()) save();
+        RESCAN_TIME.recordSince(start);
+        return changed;
+    }
+
+    public int size() {
+        return playable.size();
+    }
+
+    public synchronized List<Track> tracks() {
+        return new ArrayList<>(tracks.values());
+    }
+
+    // A random playable track, avoiding the given one when there is a choice; null if none
+    public Track pickRandom(Track avoid) {
+        List<Track> playable = this.playable;
+        if (playable.isEmpty()) return null;
+        Track t = playable.get(ThreadLocalRandom.current().nextInt(playable.size()));
+        if (t == avoid && playable.size() > 1) {
+            t = playable.get((playable.indexOf(t) + 1) % playable.size());
+        }
+        return t;
+    }
+
+    private static Track probe(String path, File file, long size, long mtime) {
+        try {
+            AudioFileFormat f = AudioSystem.getAudioFileFormat(file);
+            float rate = f.getFormat().getFrameRate();
+            long frames = f.getFrameLength();
+            long millis = frames > 0 && rate > 0 ? (long) (frames / rate * 1000) : -1;
+            return new Track(path, f.getType().toString(), millis, size, mtime);
+        } catch (Exception e) {
+            return new Track(path, UNPLAYABLE, -1, size, mtime);
+        }
+    }
+
+    private void save() throws IOException {
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            for (Track t : tracks.values()) {
+                if (t.path.indexOf('\t') >= 0 || t.path.indexOf('\n') >= 0) continue;
+                pw.println(t.path + "\t" + t.format + "\t" + t.durationMillis + "\t" + t.size + "\t" + t.lastModified);
+            }
+        }
+        Files.move(tmp.toPath(), indexFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String extensionOf(Path p) {
+        String name = p.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase();
+    }
+}
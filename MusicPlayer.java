@@ -0,0 +1,240 @@
+import javax.sound.sampled.*;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Streams break music through a SourceDataLine from a background thread.
+ * Only one fixed chunk is ever in memory, so long tracks cost the same as short ones,
+ * and looping or switching tracks just reopens the file stream instead of decoding it whole.
+ * prepare() lets the worker parse the next track's header, read its first few hundred KB
+ * and open a matching line ahead of time, so the following play() starts at once.
+ */
+public class MusicPlayer {
+
+    private static final int BUFFER_BYTES = 32 * 1024;
+    private static final int PREFETCH_BYTES = 256 * 1024;
+    private static final Metrics.Histogram OPEN_TIME = Metrics.histogram("audio.music.open.nanos");
+
+    private final Object lock = new Object();
+    private File track;          // guarded by lock, null when nothing should play
+    private int generation = 0;  // guarded by lock, bumped on every play/stop
+    private File pending;        // guarded by lock: track to prepare while idle
+    private boolean closed = false;
+    private Thread worker;
+    private volatile SourceDataLine line;  // opened and reused by the worker only
+    private File prepared;                 // worker only: track whose stream is already open
+    private AudioInputStream preparedIn;   // worker only
+
+    public void play(File file) {
+        synchronized (lock) {
+            if (closed) return;
+            track = file;
+            generation++;
+            cutOff();
+            startWorker();
+            lock.notifyAll();
+        }
+    }
+
+    // Gets the track ready in the background; ignored if something is playing by then
+    public void prepare(File file) {
+        synchronized (lock) {
+            if (closed) return;
+            pending = file;
+            startWorker();
+            lock.notifyAll();
+        }
+    }
+
+    private void startWorker() {
+        if (worker == null) {
+            worker = new Thread(this::run, "strawberry-music");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            track = null;
+            generation++;
+            cutOff();
+            lock.notifyAll();
+        }
+    }
+
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            track = null;
+            generation++;
+            cutOff();
+            lock.notifyAll();
+        }
+    }
+
+    // Unblocks a pending write() so a switch is heard immediately. Called with the lock held,
+    // together with the generation bump: the worker only starts a track under the lock, so
+    // this can never stop a track that is already newer
+    private void cutOff() {
+        SourceDataLine l = line;
+        if (l != null) {
+            l.stop();
+            l.flush();
+        }
+    }
+
+    private boolean isCurrent(int gen) {
+        synchronized (lock) {
+            return generation == gen;
+        }
+    }
+
+    private void run() {
+        byte[] chunk = new byte[BUFFER_BYTES];
+        while (true) {
+            File file;
+            File toPrepare;
+            int gen;
+            synchronized (lock) {
+                while (track == null && pending == null && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) break;
+                file = track;
+                toPrepare = pending;
+                pending = null;
+                gen = generation;
+            }
+
+            if (file == null) {
+                prepareNow(toPrepare);
+                continue;
+            }
+
+            try {
+                stream(file, gen, chunk);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            // Only reached after a stop/switch, an empty file or an error
+            synchronized (lock) {
+                if (generation == gen) track = null;
+            }
+        }
+
+        discardPrepared();
+        SourceDataLine l = line;
+        if (l != null) {
+            line = null;
+            l.close();
+        }
+    }
+
+    private void prepareNow(File file) {
+        discardPrepared();
+        AudioInputStream in = null;
+        try {
+            in = open(file);
+            lineFor(in.getFormat());
+            prepared = file;
+            preparedIn = in;
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void discardPrepared() {
+        if (preparedIn != null) {
+            try {
+                preparedIn.close();
+            } catch (IOException ignored) {
+            }
+        }
+        prepared = null;
+        preparedIn = null;
+    }
+
+    // Header parsed and the first PREFETCH_BYTES of audio already in memory
+    private static AudioInputStream open(File file) throws Exception {
+        BufferedInputStream buffered = new BufferedInputStream(new FileInputStream(file), BUFFER_BYTES);
+        try {
+            AudioInputStream in = AudioSystem.getAudioInputStream(buffered);
+            buffered.mark(PREFETCH_BYTES);
+            byte[] ahead = new byte[BUFFER_BYTES];
+            int total = 0;
+            int n;
+            while (total < PREFETCH_BYTES && (n = buffered.read(ahead, 0, Math.min(ahead.length, PREFETCH_BYTES - total))) > 0) {
+                total += n;
+            }
+            buffered.reset(); // the read bytes stay in the buffer for the first writes
+            return in;
+        } catch (Exception e) {
+            buffered.close();
+            throw e;
+        }
+    }
+
+    private void stream(File file, int gen, byte[] chunk) throws Exception {
+        while (isCurrent(gen)) {
+            long written = 0;
+            PerfEvents.AudioOpen event = new PerfEvents.AudioOpen();
+            event.begin();
+            long start = Metrics.start();
+            try (AudioInputStream in = takePrepared(file)) {
+                SourceDataLine l = lineFor(in.getFormat());
+                synchronized (lock) {
+                    if (generation != gen) return;
+                    l.flush(); // a write that raced the last cutOff() may have left old audio behind
+                    l.start();
+                }
+                OPEN_TIME.recordSince(start);
+                event.file = file.getName();
+                event.commit();
+
+                // At most one line buffer per write, so a write that races cutOff() fits the
+                // flushed buffer instead of blocking on the stopped line
+                int max = Math.min(chunk.length, l.getBufferSize());
+                int n;
+                while (isCurrent(gen) && (n = in.read(chunk, 0, max)) > 0) {
+                    l.write(chunk, 0, n);
+                    written += n;
+                }
+            }
+            if (written == 0) break; // empty file, don't spin
+        }
+    }
+
+    private AudioInputStream takePrepared(File file) throws Exception {
+        AudioInputStream in = file.equals(prepared) ? preparedIn : null;
+        if (in == null) {
+            discardPrepared();
+            return open(file);
+        }
+        prepared = null;
+        preparedIn = null;
+        return in;
+    }
+
+    private SourceDataLine lineFor(AudioFormat format) throws LineUnavailableException {
+        SourceDataLine l = line;
+        if (l != null && l.getFormat().matches(format)) return l;
+        if (l != null) l.close();
+        l = AudioSystem.getSourceDataLine(format);
+        l.open(format, BUFFER_BYTES);
+        line = l;
+        return l;
+    }
+}
@@ -0,0 +1,102 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the timer's hot paths. They cost next to nothing
+ * unless a recording is running, e.g.
+ * java -XX:StartFlightRecording=filename=strawberry.jfr StrawberryPomodoro
+ */
+public final class PerfEvents {
+
+    private static final String CATEGORY = "Strawberry Pomodoro";
+
+    private static volatile EventType tickType; // looked up once JFR is running; the lookup itself starts JFR
+
+    private PerfEvents() {
+    }
+
+    // Called every frame, so nothing is allocated unless a recording has Tick enabled
+    public static void tick(long lateNanos, int remainingSeconds) {
+        if (!FlightRecorder.isInitialized()) return;
+        EventType type = tickType;
+        if (type == null) tickType = type = EventType.getEventType(Tick.class);
+        if (!type.isEnabled()) return;
+        Tick event = new Tick();
+        event.lateness = lateNanos;
+        event.remainingSeconds = remainingSeconds;
+        event.commit();
+    }
+
+    @Name("strawberry.Tick")
+    @Label("Timer Tick")
+    @Category(CATEGORY)
+    public static class Tick extends Event {
+        @Label("Lateness")
+        @Timespan
+        public long lateness;
+
+        @Label("Remaining Seconds")
+        public int remainingSeconds;
+    }
+
+    @Name("strawberry.Save")
+    @Label("Progress Save")
+    @Category(CATEGORY)
+    public static class Save extends Event {
+        @Label("Kind")
+        public String kind; // "append" or "snapshot"
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("strawberry.Load")
+    @Label("Progress Load")
+    @Category(CATEGORY)
+    public static class Load extends Event {
+        @Label("Bytes Read")
+        @DataAmount
+        public long bytes;
+
+        @Label("Subjects")
+        public int subjects;
+    }
+
+    @Name("strawberry.AudioOpen")
+    @Label("Audio Open")
+    @Category(CATEGORY)
+    public static class AudioOpen extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Decoded Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name("strawberry.SubjectListPaint")
+    @Label("Subject List Paint")
+    @Category(CATEGORY)
+    public static class SubjectListPaint extends Event {
+        @Label("Rows Rendered")
+        public int rowsRendered;
+
+        @Label("Total Rows")
+        public int totalRows;
+    }
+
+    @Name("strawberry.DayRollover")
+    @Label("Day Rollover")
+    @Category(CATEGORY)
+    public static class DayRollover extends Event {
+        @Label("Closed Day")
+        public String closedDay;
+    }
+}
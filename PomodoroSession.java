@@ -0,0 +1,242 @@
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Pomodoro state machine without any Swing: focus/break modes, the automatic
+ * Pomodoro -> Short/Long Break -> Pomodoro switching (a long break after every 4th
+ * Pomodoro) and the daily and per-subject counters.
+ *
+ * With a SessionScheduler the session wakes itself up when its countdown ends, so
+ * thousands of sessions can share a few threads. Without one the owner calls poll(),
+ * e.g. from a display refresh timer. Listener callbacks run with the session locked.
+ */
+public class PomodoroSession {
+
+    public static final String POMODORO = "Pomodoro";
+    public static final String SHORT_BREAK = "Short Break";
+    public static final String LONG_BREAK = "Long Break";
+
+    public static final int POMODORO_MIN = 25;
+    public static final int SHORT_BREAK_MIN = 5;
+    public static final int LONG_BREAK_MIN = 15;
+
+    public interface Listener {
+        default void modeChanged(String mode) {}
+
+        default void started(String mode, boolean resumed) {}
+
+        default void paused(String mode) {}
+
+        // The countdown reached zero, before switching to the next mode
+        default void finished(String mode) {}
+
+        default void pomodoroCompleted(String subject, int minutes) {}
+    }
+
+    private final SessionScheduler scheduler;
+    private final int pomodoroMin;
+    private final int shortBreakMin;
+    private final int longBreakMin;
+    private final CountdownEngine countdown;
+    private Listener listener = new Listener() {};
+    private SessionScheduler.Timeout wakeup;
+
+    private String mode = POMODORO;
+    private boolean running = false;
+    private int pomodoroCount = 0; // completed Pomodoros, for the long break rule
+    private String currentSubject = null;
+    private int completedSessions = 0;
+    private int totalStudyMinutes = 0;
+    private final SubjectRegistry subjects = new SubjectRegistry();
+
+    public PomodoroSession(SessionScheduler scheduler) {
+        this(scheduler, POMODORO_MIN, SHORT_BREAK_MIN, LONG_BREAK_MIN);
+    }
+
+    public PomodoroSession(SessionScheduler scheduler, int pomodoroMin, int shortBreakMin, int longBreakMin) {
+        this(scheduler, SessionClock.SYSTEM, pomodoroMin, shortBreakMin, longBreakMin);
+    }
+
+    public PomodoroSession(SessionScheduler scheduler, SessionClock clock,
+                           int pomodoroMin, int shortBreakMin, int longBreakMin) {
+        this.scheduler = scheduler;
+        this.pomodoroMin = pomodoroMin;
+        this.shortBreakMin = shortBreakMin;
+        this.longBreakMin = longBreakMin;
+        this.countdown = new CountdownEngine(pomodoroMin, TimeUnit.MINUTES, clock);
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener == null ? new Listener() {} : listener;
+    }
+
+    // ===== TIMER =====
+    public synchronized void setMode(String mode) {
+        cancelWakeup();
+        running = false;
+
+        int minutes = pomodoroMin;
+        if (mode.equals(SHORT_BREAK)) minutes = shortBreakMin;
+        else if (mode.equals(LONG_BREAK)) minutes = longBreakMin;
+        else mode = POMODORO;
+
+        this.mode = mode;
+        countdown.reset(minutes, TimeUnit.MINUTES);
+        listener.modeChanged(mode);
+    }
+
+    public synchronized void toggle() {
+        if (!running) {
+            boolean resumed = countdown.elapsedMicros() > 0;
+            countdown.start();
+            running = true;
+            armWakeup();
+            listener.started(mode, resumed);
+        } else {
+            cancelWakeup();
+            countdown.pause();
+            running = false;
+            listener.paused(mode);
+        }
+    }
+
+    public synchronized void reset() {
+        setMode(mode);
+    }
+
+    // Runs the end-of-countdown transition if it is due; returns true if it did
+    public synchronized boolean poll() {
+        if (!running) return false;
+        if (!countdown.isFinished()) {
+            armWakeup(); // woke up early, wait for the rest
+            return false;
+        }
+
+        cancelWakeup();
+        running = false;
+        listener.finished(mode);
+
+        if (mode.equals(POMODORO)) {
+            pomodoroCount++;
+            completedSessions++;
+            totalStudyMinutes += pomodoroMin;
+            subjects.record(currentSubject, pomodoroMin);
+            listener.pomodoroCompleted(currentSubject, pomodoroMin);
+
+            // Auto switch to break
+            setMode(pomodoroCount % 4 == 0 ? LONG_BREAK : SHORT_BREAK);
+        } else {
+            // Break ended -> start next Pomodoro automatically
+            setMode(POMODORO);
+        }
+        toggle();
+        return true;
+    }
+
+    private void armWakeup() {
+        if (scheduler == null) return;
+        cancelWakeup();
+        wakeup = scheduler.schedule(this::poll, countdown.remainingNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void cancelWakeup() {
+        if (wakeup != null) {
+            wakeup.cancel();
+            wakeup = null;
+        }
+    }
+
+    // ===== SUBJECTS & PROGRESS =====
+    public synchronized boolean addSubject(String name) {
+        if (subjects.add(name) == SubjectRegistry.NO_SUBJECT) return false;
+        currentSubject = name;
+        return true;
+    }
+
+    public synchronized boolean removeSubject(String name) {
+        if (!subjects.remove(name)) return false;
+        if (name.equals(currentSubject)) currentSubject = null;
+        return true;
+    }
+
+    public synchronized void selectSubject(String name) {
+        if (name == null || subjects.contains(name)) currentSubject = name;
+    }
+
+    // Midnight: today's counters start over, subjects stay
+    public synchronized void resetDay() {
+        completedSessions = 0;
+        totalStudyMinutes = 0;
+        subjects.resetAll();
+    }
+
+    public synchronized void restore(int completedSessions, int totalStudyMinutes, Map<String, SubjectProgress> saved) {
+        this.completedSessions = completedSessions;
+        this.totalStudyMinutes = totalStudyMinutes;
+        for (Map.Entry<String, SubjectProgress> e : saved.entrySet()) {
+            subjects.add(e.getKey());
+            subjects.set(e.getKey(), e.getValue().sessions, e.getValue().minutes);
+        }
+    }
+
+    // Replaces today's session and minute totals, e.g. with the sums merged from other devices
+    public synchronized void setTotals(int completedSessions, int totalStudyMinutes) {
+        this.completedSessions = completedSessions;
+        this.totalStudyMinutes = totalStudyMinutes;
+    }
+
+    // One subject's merged counters; adds the subject if it's new here and returns true then
+    public synchronized boolean setSubjectProgress(String name, int sessions, int minutes) {
+        boolean added = subjects.add(name) != SubjectRegistry.NO_SUBJECT;
+        subjects.set(name, sessions, minutes);
+        return added;
+    }
+
+    // ===== STATE =====
+    public synchronized String getMode() {
+        return mode;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized int getPomodoroCount() {
+        return pomodoroCount;
+    }
+
+    public synchronized String getCurrentSubject() {
+        return currentSubject;
+    }
+
+    public synchronized int getCompletedSessions() {
+        return completedSessions;
+    }
+
+    public synchronized int getTotalStudyMinutes() {
+        return totalStudyMinutes;
+    }
+
+    // Safe to read from any thread without the session lock
+    public SubjectRegistry getSubjects() {
+        return subjects;
+    }
+
+    public synchronized int remainingSeconds() {
+        return countdown.remainingSeconds();
+    }
+
+    public synchronized long remainingNanos() {
+        return countdown.remainingNanos();
+    }
+
+    public synchronized long durationNanos() {
+        return countdown.durationNanos();
+    }
+
+    // Immutable copy that other threads can read without touching the session
+    public synchronized StatusSnapshot snapshot() {
+        return new StatusSnapshot(mode, running, countdown.remainingNanos(), pomodoroCount,
+            completedSessions, totalStudyMinutes, currentSubject, subjects);
+    }
+}
@@ -0,0 +1,272 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress persistence as a snapshot file plus an append-only journal of events.
+ * Each event is one line "seq TAB type TAB fields...", so saving costs the same no matter
+ * how many subjects there are. Recovery reads the snapshot and replays the journal tail;
+ * a torn last line from a crash is dropped and cut off. compact() folds everything back
+ * into the snapshot (in the old strawberry_progress.txt layout plus a trailing seq line).
+ */
+public class ProgressJournal implements Closeable {
+
+    public static final String DAY = "DAY";          // DAY <date>: counters reset for a new day
+    public static final String ADD = "ADD";          // ADD <subject>
+    public static final String REMOVE = "REMOVE";    // REMOVE <subject>
+    public static final String START = "START";      // START <mode> <subject>: informational only
+    public static final String COMPLETE = "COMPLETE"; // COMPLETE <minutes> <subject>
+
+    private static final int FSYNC_EVERY = 8;
+    private static final int COMPACT_EVERY = 256;
+
+    private static final Metrics.Histogram APPEND_TIME = Metrics.histogram("journal.append.nanos");
+    private static final Metrics.Histogram SNAPSHOT_TIME = Metrics.histogram("journal.snapshot.nanos");
+    private static final Metrics.Histogram LOAD_TIME = Metrics.histogram("progress.load.nanos");
+    private static final Metrics.Counter BYTES_WRITTEN = Metrics.counter("journal.bytesWritten");
+
+    public static class State {
+        public LocalDate date = LocalDate.now();
+        public int completedSessions = 0;
+        public int totalStudyMinutes = 0;
+        public Map<String, SubjectProgress> subjects = new LinkedHashMap<>();
+
+        // Copy of a session's counters, safe to hand to another thread
+        public static State of(LocalDate date, PomodoroSession session) {
+            State state = new State();
+            state.date = date;
+            state.completedSessions = session.getCompletedSessions();
+            state.totalStudyMinutes = session.getTotalStudyMinutes();
+            session.getSubjects().forEach((name, sessions, minutes) -> {
+                SubjectProgress copy = new SubjectProgress();
+                copy.sessions = sessions;
+                copy.minutes = minutes;
+                state.subjects.put(name, copy);
+            });
+            return state;
+        }
+    }
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private FileChannel channel;
+    private long lastSeq = 0;
+    private int unsynced = 0;
+    private int eventsSinceSnapshot = 0;
+
+    public ProgressJournal(File snapshotFile, File journalFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+    }
+
+    // Rebuilds the saved state and drops any torn tail from the journal
+    public synchronized State recover() throws IOException {
+        PerfEvents.Load event = new PerfEvents.Load();
+        event.begin();
+        long loadStart = Metrics.start();
+
+        State state = new State();
+        lastSeq = snapshotFile.exists() ? readSnapshot(state) : 0;
+        eventsSinceSnapshot = 0;
+
+        long good = 0;
+        if (journalFile.exists()) {
+            byte[] data = Files.readAllBytes(journalFile.toPath());
+            int start = 0;
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] != '\n') continue;
+                String line = new String(data, start, i - start, StandardCharsets.UTF_8);
+                if (!replay(state, line)) break;
+                start = i + 1;
+                good = start;
+            }
+        }
+
+        closeChannel();
+        channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(good);
+        channel.position(good);
+
+        LOAD_TIME.recordSince(loadStart);
+        event.bytes = snapshotFile.length() + good;
+        event.subjects = state.subjects.size();
+        event.commit();
+        return state;
+    }
+
+    public synchronized void append(String type, Object... fields) throws IOException {
+        PerfEvents.Save event = new PerfEvents.Save();
+        event.begin();
+        long start = Metrics.start();
+
+        if (channel == null) {
+            channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(++lastSeq).append('\t').append(type);
+        for (Object f : fields) sb.append('\t').append(f == null ? "" : clean(f.toString()));
+        sb.append('\n');
+
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) channel.write(buf);
+        eventsSinceSnapshot++;
+
+        // A process crash keeps written bytes; fsync in batches to bound what a power cut can lose
+        if (++unsynced >= FSYNC_EVERY) sync();
+
+        APPEND_TIME.recordSince(start);
+        BYTES_WRITTEN.add(buf.limit());
+        event.kind = "append";
+        event.bytes = buf.limit();
+        event.commit();
+    }
+
+    public synchronized boolean needsCompaction() {
+        return eventsSinceSnapshot >= COMPACT_EVERY;
+    }
+
+    // Writes the full state as the new snapshot and empties the journal
+    public synchronized void compact(State state) throws IOException {
+        PerfEvents.Save event = new PerfEvents.Save();
+        event.begin();
+        long start = Metrics.start();
+
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             PrintWriter pw = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            pw.println(state.date);
+            pw.println(state.completedSessions);
+            pw.println(state.totalStudyMinutes);
+            pw.println(state.subjects.size());
+            for (Map.Entry<String, SubjectProgress> e : state.subjects.entrySet()) {
+                pw.println(e.getKey());
+                pw.println(e.getValue().sessions);
+                pw.println(e.getValue().minutes);
+            }
+            pw.println(lastSeq);
+            pw.flush();
+            out.getFD().sync();
+        }
+        long bytes = tmp.length();
+        Files.move(tmp.toPath(), snapshotFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // If we crash before this, replay skips events already covered by the snapshot's seq
+        if (channel != null) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+        unsynced = 0;
+        eventsSinceSnapshot = 0;
+
+        SNAPSHOT_TIME.recordSince(start);
+        BYTES_WRITTEN.add(bytes);
+        event.kind = "snapshot";
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    public synchronized void sync() throws IOException {
+        if (channel != null && unsynced > 0) channel.force(false);
+        unsynced = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        closeChannel();
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private long readSnapshot(State state) throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(snapshotFile), StandardCharsets.UTF_8))) {
+            state.date = LocalDate.parse(br.readLine());
+            state.completedSessions = Integer.parseInt(br.readLine());
+            state.totalStudyMinutes = Integer.parseInt(br.readLine());
+            int n = Integer.parseInt(br.readLine());
+            for (int i = 0; i < n; i++) {
+                String name = br.readLine();
+                SubjectProgress sp = new SubjectProgress();
+                sp.sessions = Integer.parseInt(br.readLine());
+                sp.minutes = Integer.parseInt(br.readLine());
+                state.subjects.put(name, sp);
+            }
+            String seq = br.readLine(); // absent in files written before the journal existed
+            return seq == null || seq.isEmpty() ? 0 : Long.parseLong(seq);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt progress snapshot " + snapshotFile, e);
+        }
+    }
+
+    // Applies one journal line; false means the line is unreadable and replay must stop
+    private boolean replay(State state, String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length < 2) return false;
+        long seq;
+        try {
+            seq = Long.parseLong(f[0]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (seq <= lastSeq) return true; // already part of the snapshot
+
+        try {
+            switch (f[1]) {
+                case DAY:
+                    state.date = LocalDate.parse(f[2]);
+                    state.completedSessions = 0;
+                    state.totalStudyMinutes = 0;
+                    for (SubjectProgress sp : state.subjects.values()) {
+                        sp.sessions = 0;
+                        sp.minutes = 0;
+                    }
+                    break;
+                case ADD:
+                    state.subjects.putIfAbsent(f[2], new SubjectProgress());
+                    break;
+                case REMOVE:
+                    state.subjects.remove(f[2]);
+                    break;
+                case START:
+                    break;
+                case COMPLETE:
+                    int minutes = Integer.parseInt(f[2]);
+                    state.completedSessions++;
+                    state.totalStudyMinutes += minutes;
+                    SubjectProgress sp = state.subjects.get(f[3]);
+                    if (sp != null) {
+                        sp.sessions++;
+                        sp.minutes += minutes;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+        lastSeq = seq;
+        eventsSinceSnapshot++;
+        return true;
+    }
+
+    private static String clean(String s) {
+        return s.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
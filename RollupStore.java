@@ -0,0 +1,255 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-day, per-ISO-week and per-month totals, overall and per subject, for charts and
+ * calendar views. They follow the history store: catchUp() folds in only the records
+ * added since last time, so a chart query walks its buckets, never the raw sessions.
+ * The rollups are saved to their own file together with how many history records they
+ * cover; a missing, stale or damaged file is simply rebuilt from the history.
+ * Values are packed like SubjectRegistry: sessions in the high half, minutes in the low.
+ */
+public class RollupStore {
+
+    public static final int DAY = 0;
+    public static final int WEEK = 1;  // ISO weeks, Monday to Sunday
+    public static final int MONTH = 2;
+    public static final int ALL_SUBJECTS = -2;
+
+    private static final int MAGIC = 0x53525550; // "SRUP"
+    private static final int VERSION = 1;
+    private static final long ONE_SESSION = 1L << 32;
+    private static final Metrics.Histogram CATCH_UP_TIME = Metrics.histogram("rollups.catchUp.nanos");
+
+    // Buckets of one level, indexed by bucket number - base. History is in date order, so
+    // buckets arrive nearly in order and the arrays grow at the end.
+    private static final class Level {
+        int base;
+        long[] totals = new long[0];
+        int[][] ids = new int[0][];       // per bucket: history subject ids, sorted; null if none
+        long[][] values = new long[0][];  // per bucket: packed totals matching ids
+        int nonEmpty = 0;
+
+        int index(int bucket) {
+            if (totals.length == 0) base = bucket;
+            if (bucket < base) {
+                int shift = base - bucket;
+                grow(totals.length + shift, shift);
+                base = bucket;
+            } else if (bucket - base >= totals.length) {
+                grow(Math.max(bucket - base + 1, totals.length * 2), 0);
+            }
+            return bucket - base;
+        }
+
+        private void grow(int size, int shift) {
+            long[] t = new long[Math.max(size, 16)];
+            int[][] i = new int[t.length][];
+            long[][] v = new long[t.length][];
+            System.arraycopy(totals, 0, t, shift, totals.length);
+            System.arraycopy(ids, 0, i, shift, ids.length);
+            System.arraycopy(values, 0, v, shift, values.length);
+            totals = t;
+            ids = i;
+            values = v;
+        }
+
+        void add(int bucket, int subjectId, long delta) {
+            int b = addTotal(bucket, delta);
+            if (subjectId != HistoryStore.NO_SUBJECT) addSubject(b, subjectId, delta);
+        }
+
+        // Returns the bucket's index
+        int addTotal(int bucket, long delta) {
+            int b = index(bucket);
+            if (totals[b] == 0) nonEmpty++;
+            totals[b] += delta;
+            return b;
+        }
+
+        void addSubject(int b, int subjectId, long delta) {
+            int[] bucketIds = ids[b];
+            int at = bucketIds == null ? -1 : Arrays.binarySearch(bucketIds, subjectId);
+            if (at >= 0) {
+                values[b][at] += delta;
+                return;
+            }
+            // A subject's first session in this bucket: insert, keeping ids sorted
+            int n = bucketIds == null ? 0 : bucketIds.length;
+            int pos = bucketIds == null ? 0 : -at - 1;
+            int[] newIds = new int[n + 1];
+            long[] newValues = new long[n + 1];
+            if (n > 0) {
+                System.arraycopy(bucketIds, 0, newIds, 0, pos);
+                System.arraycopy(bucketIds, pos, newIds, pos + 1, n - pos);
+                System.arraycopy(values[b], 0, newValues, 0, pos);
+                System.arraycopy(values[b], pos, newValues, pos + 1, n - pos);
+            }
+            newIds[pos] = subjectId;
+            newValues[pos] = delta;
+            ids[b] = newIds;
+            values[b] = newValues;
+        }
+
+        // Packed total of one bucket, overall or for one subject; 0 if none
+        long get(int bucket, int subjectId) {
+            int b = bucket - base;
+            if (b < 0 || b >= totals.length) return 0;
+            if (subjectId == ALL_SUBJECTS) return totals[b];
+            if (ids[b] == null) return 0;
+            int at = Arrays.binarySearch(ids[b], subjectId);
+            return at < 0 ? 0 : values[b][at];
+        }
+
+        void clear() {
+            totals = new long[0];
+            ids = new int[0][];
+            values = new long[0][];
+            nonEmpty = 0;
+        }
+    }
+
+    private final File file;
+    private final Level[] levels = {new Level(), new Level(), new Level()};
+    private long covered = 0; // history records already folded in
+    private int lastDay = Integer.MIN_VALUE;
+    private int lastMonth;
+
+    public RollupStore(File file) {
+        this.file = file;
+    }
+
+    // Loads the saved rollups (or starts empty) and catches up with the history
+    public synchronized void open(HistoryStore history) throws IOException {
+        if (!load()) clear();
+        catchUp(history);
+    }
+
+    // Folds in history records added since the last call; returns how many
+    public synchronized long catchUp(HistoryStore history) throws IOException {
+        long start = Metrics.start();
+        if (history.recordCount() < covered) clear(); // history was replaced, start over
+        long before = covered;
+        covered = history.scanFrom(covered, this::add);
+        CATCH_UP_TIME.recordSince(start);
+        return covered - before;
+    }
+
+    public synchronized long covered() {
+        return covered;
+    }
+
+    // Bucket number of a date: epoch day, Monday-based week since 1970, or year * 12 + month - 1
+    public static int bucketOf(int level, LocalDate date) {
+        int day = (int) date.toEpochDay();
+        if (level == DAY) return day;
+        if (level == WEEK) return Math.floorDiv(day + 3, 7); // 1970-01-01 was a Thursday
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    // First day of a bucket, for chart labels
+    public static LocalDate startOf(int level, int bucket) {
+        if (level == DAY) return LocalDate.ofEpochDay(bucket);
+        if (level == WEEK) return LocalDate.ofEpochDay(bucket * 7L - 3);
+        return LocalDate.of(Math.floorDiv(bucket, 12), Math.floorMod(bucket, 12) + 1, 1);
+    }
+
+    // Packed totals for every bucket from the one holding 'from' to the one holding 'to';
+    // subjectId is a HistoryStore id or ALL_SUBJECTS. Costs O(buckets in range).
+    public synchronized long[] series(int level, LocalDate from, LocalDate to, int subjectId) {
+        int first = bucketOf(level, from);
+        int last = bucketOf(level, to);
+        long[] out = new long[Math.max(0, last - first + 1)];
+        Level l = levels[level];
+        for (int i = 0; i < out.length; i++) out[i] = l.get(first + i, subjectId);
+        return out;
+    }
+
+    // Packed totals per subject within one bucket, in history subject id order
+    public synchronized Map<Integer, Long> bySubject(int level, LocalDate date) {
+        Level l = levels[level];
+        int b = bucketOf(level, date) - l.base;
+        Map<Integer, Long> out = new LinkedHashMap<>();
+        if (b >= 0 && b < l.totals.length && l.ids[b] != null) {
+            for (int i = 0; i < l.ids[b].length; i++) out.put(l.ids[b][i], l.values[b][i]);
+        }
+        return out;
+    }
+
+    public synchronized int bucketCount(int level) {
+        return levels[level].nonEmpty;
+    }
+
+    public synchronized void save() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(covered);
+            for (Level level : levels) {
+                out.writeInt(level.nonEmpty);
+                for (int b = 0; b < level.totals.length; b++) {
+                    if (level.totals[b] == 0) continue;
+                    out.writeInt(level.base + b);
+                    out.writeLong(level.totals[b]);
+                    int[] ids = level.ids[b];
+                    out.writeInt(ids == null ? 0 : ids.length);
+                    for (int i = 0; ids != null && i < ids.length; i++) {
+                        out.writeShort(ids[i]);
+                        out.writeLong(level.values[b][i]);
+                    }
+                }
+            }
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean load() {
+        if (!file.exists()) return false;
+        clear();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return false;
+            long savedCovered = in.readLong();
+            for (Level level : levels) {
+                int buckets = in.readInt();
+                for (int i = 0; i < buckets; i++) {
+                    int b = level.addTotal(in.readInt(), in.readLong());
+                    int subjects = in.readInt();
+                    for (int j = 0; j < subjects; j++) level.addSubject(b, in.readShort(), in.readLong());
+                }
+            }
+            covered = savedCovered;
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace(); // damaged, rebuild from the history
+            return false;
+        }
+    }
+
+    private void clear() {
+        for (Level level : levels) level.clear();
+        covered = 0;
+        lastDay = Integer.MIN_VALUE;
+    }
+
+    private void add(int epochDay, int subjectId, int minutes) {
+        // History is in date order, so the month only needs working out when the day changes
+        if (epochDay != lastDay) {
+            lastDay = epochDay;
+            lastMonth = bucketOf(MONTH, LocalDate.ofEpochDay(epochDay));
+        }
+        long delta = ONE_SESSION + minutes;
+        levels[DAY].add(epochDay, subjectId, delta);
+        levels[WEEK].add(Math.floorDiv(epochDay + 3, 7), subjectId, delta);
+        levels[MONTH].add(lastMonth, subjectId, delta);
+    }
+}
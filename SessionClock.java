@@ -0,0 +1,44 @@
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Where the timer gets the time from. The app uses SYSTEM; the simulation runner uses
+ * a VirtualClock so months of sessions, breaks and midnights pass in seconds.
+ */
+public interface SessionClock {
+
+    SessionClock SYSTEM = new SessionClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public ZoneId zone() {
+            return ZoneId.systemDefault();
+        }
+    };
+
+    // Monotonic, for countdowns
+    long nanoTime();
+
+    // Wall clock, for dates
+    long currentTimeMillis();
+
+    ZoneId zone();
+
+    default ZonedDateTime now() {
+        return Instant.ofEpochMilli(currentTimeMillis()).atZone(zone());
+    }
+
+    default LocalDate today() {
+        return now().toLocalDate();
+    }
+}
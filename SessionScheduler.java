@@ -0,0 +1,23 @@
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One-shot wakeups shared by many sessions, so a session only costs a thread
+ * when its countdown actually ends instead of ticking once a second.
+ */
+public interface SessionScheduler {
+
+    interface Timeout {
+        boolean cancel();
+    }
+
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    static SessionScheduler of(ScheduledExecutorService executor) {
+        return (task, delay, unit) -> {
+            ScheduledFuture<?> future = executor.schedule(task, delay, unit);
+            return () -> future.cancel(false);
+        };
+    }
+}
@@ -0,0 +1,170 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Sync through a folder every device can see (a USB stick, a network share, a cloud
+ * drive). Each device appends its deltas to its own "<device>.<generation>.log", one
+ * line per entry: epoch day TAB device TAB sessions TAB minutes TAB subject.
+ * Readers remember how far they got in every file and only read what was appended,
+ * ignoring a line that isn't finished yet. When a log gets long the device writes a
+ * fresh generation with just its current entries and deletes the old one.
+ */
+public class SharedDirectoryTransport implements SyncTransport {
+
+    private static final String SUFFIX = ".log";
+    private static final int COMPACT_AFTER_LINES = 4096;
+
+    private final File dir;
+    private final String deviceId;
+    private final Map<String, Long> offsets = new HashMap<>(); // file name -> bytes consumed
+    private File own;
+    private int ownLines = 0;
+
+    public SharedDirectoryTransport(File dir, String deviceId) throws IOException {
+        this.dir = dir;
+        this.deviceId = deviceId;
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Can't create " + dir);
+
+        // Continue the newest generation of our own log
+        long newest = -1;
+        for (File f : logs()) {
+            long gen = generationOf(f);
+            if (f.getName().startsWith(deviceId + ".") && gen > newest) {
+                newest = gen;
+                own = f;
+            }
+        }
+        if (own == null) own = new File(dir, deviceId + ".1" + SUFFIX);
+    }
+
+    @Override
+    public synchronized void publish(List<CounterSync.Entry> delta) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(own, true)) {
+            out.write(format(delta));
+            out.getFD().sync();
+        }
+        ownLines += delta.size();
+    }
+
+    @Override
+    public synchronized void poll(Consumer<CounterSync.Entry> sink) throws IOException {
+        Set<String> present = new HashSet<>();
+        for (File f : logs()) {
+            present.add(f.getName());
+            long offset = offsets.getOrDefault(f.getName(), 0L);
+            if (f.length() <= offset) continue;
+            offsets.put(f.getName(), offset + readLines(f, offset, sink));
+        }
+        offsets.keySet().retainAll(present);
+    }
+
+    @Override
+    public synchronized boolean needsCompaction() {
+        return ownLines >= COMPACT_AFTER_LINES;
+    }
+
+    @Override
+    public synchronized void compact(List<CounterSync.Entry> current) throws IOException {
+        File next = new File(dir, deviceId + "." + (generationOf(own) + 1) + SUFFIX);
+        File tmp = new File(dir, next.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(format(current));
+            out.getFD().sync();
+        }
+        // Peers may briefly read both generations; merging the same entries twice is harmless
+        if (!tmp.renameTo(next)) throw new IOException("Can't rename " + tmp);
+        File old = own;
+        own = next;
+        ownLines = current.size();
+        if (!old.delete() && old.exists()) old.deleteOnExit();
+    }
+
+    private File[] logs() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX) && generationOf(name) >= 0);
+        return files == null ? new File[0] : files;
+    }
+
+    private static long generationOf(File f) {
+        return generationOf(f.getName());
+    }
+
+    // "<device>.<generation>.log" -> generation, or -1 for anything else
+    private static long generationOf(String name) {
+        String base = name.substring(0, name.length() - SUFFIX.length());
+        int dot = base.lastIndexOf('.');
+        if (dot <= 0) return -1;
+        try {
+            return Long.parseLong(base.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Returns how many bytes of complete lines were consumed
+    private static long readLines(File f, long offset, Consumer<CounterSync.Entry> sink) throws IOException {
+        byte[] bytes;
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size - offset > Integer.MAX_VALUE) throw new IOException("Sync log too large: " + f);
+            ByteBuffer buf = ByteBuffer.allocate((int) (size - offset));
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, offset + buf.position()) < 0) break;
+            }
+            bytes = Arrays.copyOf(buf.array(), buf.position());
+        }
+
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') end--;
+        if (end == 0) return 0;
+        for (String line : new String(bytes, 0, end - 1, StandardCharsets.UTF_8).split("\n", -1)) {
+            CounterSync.Entry e = parse(line);
+            if (e != null) sink.accept(e);
+        }
+        return end;
+    }
+
+    static CounterSync.Entry parse(String line) {
+        String[] f = line.split("\t", 5);
+        if (f.length != 5) return null;
+        try {
+            return new CounterSync.Entry(Integer.parseInt(f[0]), unescape(f[4]), f[1],
+                Integer.parseInt(f[2]), Integer.parseInt(f[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static byte[] format(List<CounterSync.Entry> entries) {
+        StringBuilder sb = new StringBuilder(entries.size() * 48);
+        for (CounterSync.Entry e : entries) {
+            sb.append(e.epochDay).append('\t').append(e.device).append('\t')
+                .append(e.sessions).append('\t').append(e.minutes).append('\t')
+                .append(escape(e.subject)).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char n = s.charAt(++i);
+                sb.append(n == 't' ? '\t' : n == 'n' ? '\n' : n == 'r' ? '\r' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
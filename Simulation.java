@@ -0,0 +1,233 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless replay of days of study on a VirtualClock, for load and regression tests:
+ * java StrawberryPomodoro --simulate DAYS [--out DIR] [--start YYYY-MM-DD] [--subjects N] [--tick-ms N]
+ * A simulated student studies 09:00-17:00 UTC every day, rotating through the subjects.
+ * Sessions, the long-break rule and midnight resets run through the same PomodoroSession,
+ * DayRolloverService and persistence classes as the app, and the files land in DIR
+ * (default "simulation") under the app's own names.
+ * Without --tick-ms the clock jumps from wakeup to wakeup; with it the session is polled
+ * every N simulated milliseconds, like the app's refresh timer.
+ */
+public class Simulation {
+
+    private static final int STUDY_START_HOUR = 9;
+    private static final int STUDY_HOURS = 8;
+    private static final long DAY_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    private final File dir;
+    private final VirtualClock clock;
+    private final long tickNanos;
+    private final String[] subjects;
+    private final PomodoroSession session;
+    private final ProgressJournal journal;
+    private final HistoryStore history;
+    private final RollupStore rollups;
+    private LocalDate savedDate;
+    private int nextSubject = 0;
+    private long pomodoros = 0;
+    private long longBreaks = 0;
+    private long ticks = 0;
+
+    public Simulation(File dir, LocalDate start, int subjectCount, long tickNanos) {
+        this.dir = dir;
+        this.clock = new VirtualClock(start.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+        this.tickNanos = tickNanos;
+        this.subjects = new String[subjectCount];
+        for (int i = 0; i < subjectCount; i++) subjects[i] = "Subject " + (i + 1);
+        this.session = new PomodoroSession(tickNanos == 0 ? clock : null, clock,
+            PomodoroSession.POMODORO_MIN, PomodoroSession.SHORT_BREAK_MIN, PomodoroSession.LONG_BREAK_MIN);
+        this.journal = newJournal();
+        this.history = new HistoryStore(new File(dir, "strawberry_history.dat"), new File(dir, "strawberry_history_subjects.txt"));
+        this.rollups = new RollupStore(new File(dir, "strawberry_rollups.dat"));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int days = 0;
+        File dir = new File("simulation");
+        LocalDate start = null;
+        int subjectCount = 5;
+        long tickNanos = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--simulate")) days = Integer.parseInt(args[i + 1]);
+            else if (args[i].equals("--out")) dir = new File(args[i + 1]);
+            else if (args[i].equals("--start")) start = LocalDate.parse(args[i + 1]);
+            else if (args[i].equals("--subjects")) subjectCount = Integer.parseInt(args[i + 1]);
+            else if (args[i].equals("--tick-ms")) tickNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[i + 1]));
+        }
+        if (days <= 0 || subjectCount <= 0) {
+            System.err.println("usage: --simulate DAYS [--out DIR] [--start YYYY-MM-DD] [--subjects N] [--tick-ms N]");
+            return;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Can't create " + dir);
+        if (start == null) start = continueFrom(dir);
+        if (!new Simulation(dir, start, subjectCount, tickNanos).run(days)) System.exit(1);
+    }
+
+    // A fresh folder starts on 2024-01-01; an existing one carries on the day after its saved date
+    private static LocalDate continueFrom(File dir) throws IOException {
+        if (!new File(dir, "strawberry_progress.txt").exists()) return LocalDate.of(2024, 1, 1);
+        ProgressJournal saved = new ProgressJournal(new File(dir, "strawberry_progress.txt"),
+            new File(dir, "strawberry_progress.journal"));
+        LocalDate date = saved.recover().date;
+        saved.close();
+        return date.plusDays(1);
+    }
+
+    /** Returns false if the long-break rule was broken or the files don't recover to the session's state. */
+    public boolean run(int days) throws IOException {
+        long wallStart = System.nanoTime();
+
+        // Same start-up path as the app: recover, then follow midnights
+        boolean fresh = !new File(dir, "strawberry_progress.txt").exists()
+            && !new File(dir, "strawberry_progress.journal").exists();
+        ProgressJournal.State state = journal.recover();
+        if (fresh) state.date = clock.today(); // not the real today, or the virtual midnights never roll over
+        history.open();
+        rollups.open(history);
+        savedDate = state.date;
+        session.restore(state.completedSessions, state.totalStudyMinutes, state.subjects);
+        for (String s : subjects) {
+            if (session.addSubject(s)) journal.append(ProgressJournal.ADD, s);
+        }
+        session.setListener(new PomodoroSession.Listener() {
+            @Override
+            public void modeChanged(String mode) {
+                if (mode.equals(PomodoroSession.LONG_BREAK)) longBreaks++;
+            }
+
+            @Override
+            public void started(String mode, boolean resumed) {
+                if (!resumed) append(ProgressJournal.START, mode, session.getCurrentSubject());
+            }
+
+            @Override
+            public void pomodoroCompleted(String subject, int minutes) {
+                pomodoros++;
+                append(ProgressJournal.COMPLETE, minutes, subject);
+                try {
+                    history.record(clock.today(), subject, minutes);
+                    rollups.catchUp(history);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                session.selectSubject(subjects[nextSubject++ % subjects.length]);
+            }
+        });
+        DayRolloverService dayRollover = new DayRolloverService(clock, clock, savedDate, this::onNewDay);
+        dayRollover.start();
+        clock.schedule(this::startStudying, STUDY_START_HOUR, TimeUnit.HOURS);
+
+        // Stop just short of the last midnight so its rollover compaction doesn't empty the journal tail
+        long end = days * DAY_NANOS - 1;
+        if (tickNanos == 0) {
+            clock.advanceTo(end);
+        } else {
+            for (long t = tickNanos; t <= end; t += tickNanos) {
+                clock.advanceTo(t);
+                session.poll();
+                ticks++;
+            }
+        }
+
+        dayRollover.close();
+        ProgressJournal.State finalState = ProgressJournal.State.of(savedDate, session);
+        // Recover before the last compact so the snapshot plus journal tail is what gets checked,
+        // then again after it for the snapshot alone
+        journal.sync();
+        boolean tailMatches = sameState(reread(), finalState);
+        journal.compact(finalState);
+        rollups.save();
+        journal.close();
+        boolean snapshotMatches = sameState(reread(), finalState);
+        long records = history.recordCount();
+        history.close();
+        return report(days, tailMatches, snapshotMatches, records, System.nanoTime() - wallStart);
+    }
+
+    private void startStudying() {
+        session.selectSubject(subjects[nextSubject++ % subjects.length]);
+        session.setMode(PomodoroSession.POMODORO);
+        session.toggle();
+        clock.schedule(this::stopStudying, STUDY_HOURS, TimeUnit.HOURS);
+        clock.schedule(this::startStudying, 1, TimeUnit.DAYS);
+    }
+
+    private void stopStudying() {
+        session.setMode(PomodoroSession.POMODORO); // same as pressing Reset
+    }
+
+    // Mirrors the app's midnight handling: flush history, reset the day, log it, snapshot
+    private void onNewDay(LocalDate closedDay, LocalDate today) {
+        try {
+            history.sync();
+            savedDate = today;
+            session.resetDay();
+            journal.append(ProgressJournal.DAY, savedDate);
+            journal.compact(ProgressJournal.State.of(savedDate, session));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Mirrors the app's logEvent(): append, and fold into a snapshot when it's time
+    private void append(String type, Object... fields) {
+        try {
+            journal.append(type, fields);
+            if (journal.needsCompaction()) journal.compact(ProgressJournal.State.of(savedDate, session));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean report(int days, boolean tailMatches, boolean snapshotMatches, long records, long wallNanos) {
+        double wallSeconds = wallNanos / 1e9;
+        System.out.printf("simulated %d days (%s) in %.2f s: %.0f simulated s per second%n",
+            days, savedDate, wallSeconds, days * 86_400.0 / wallSeconds);
+        System.out.printf("pomodoros %d, long breaks %d (expected %d), history records %d, scheduler tasks %d%s%n",
+            pomodoros, longBreaks, pomodoros / 4, records, clock.tasksRun(),
+            tickNanos == 0 ? "" : String.format(", ticks %d (%.0f/s)", ticks, ticks / wallSeconds));
+        System.out.println("snapshot + journal tail matches session: " + tailMatches);
+        System.out.println("compacted snapshot matches session: " + snapshotMatches);
+        boolean ok = longBreaks == pomodoros / 4 && tailMatches && snapshotMatches;
+        if (!ok) System.err.println("simulation FAILED");
+        return ok;
+    }
+
+    // Reads the files back the way the next start-up would
+    private ProgressJournal.State reread() throws IOException {
+        ProgressJournal reread = newJournal();
+        try {
+            return reread.recover();
+        } finally {
+            reread.close();
+        }
+    }
+
+    private static boolean sameState(ProgressJournal.State actual, ProgressJournal.State expected) {
+        return actual.date.equals(expected.date)
+            && actual.completedSessions == expected.completedSessions
+            && actual.totalStudyMinutes == expected.totalStudyMinutes
+            && sameSubjects(actual.subjects, expected.subjects);
+    }
+
+    private ProgressJournal newJournal() {
+        return new ProgressJournal(new File(dir, "strawberry_progress.txt"), new File(dir, "strawberry_progress.journal"));
+    }
+
+    private static boolean sameSubjects(Map<String, SubjectProgress> a, Map<String, SubjectProgress> b) {
+        if (!a.keySet().equals(b.keySet())) return false;
+        for (Map.Entry<String, SubjectProgress> e : a.entrySet()) {
+            SubjectProgress other = b.get(e.getKey());
+            if (e.getValue().sessions != other.sessions || e.getValue().minutes != other.minutes) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start timings, on with -Dstrawberry.startupBench=true (or =exit to quit once
+ * measured, for scripted runs and AppCDS training). Reports, from JVM launch:
+ * reaching main(), the first painted frame, and the point where saved progress is
+ * applied and the window is usable. Printed once to stdout and kept as metrics.
+ */
+public final class StartupProbe {
+
+    private static final String MODE = System.getProperty("strawberry.startupBench", "false");
+    public static final boolean ENABLED = !MODE.equals("false");
+
+    private static long launchToMainMillis = -1;
+    private static long mainNanos;
+    private static long firstFrameNanos;
+    private static long interactiveNanos;
+    private static boolean reported = false;
+
+    private StartupProbe() {
+    }
+
+    public static void main() {
+        if (ENABLED) markMain();
+    }
+
+    // Called on every paint of the content pane, so it returns at once when disabled
+    public static void firstFrame() {
+        if (ENABLED) markFirstFrame();
+    }
+
+    public static void interactive() {
+        if (ENABLED) markInteractive();
+    }
+
+    private static synchronized void markMain() {
+        mainNanos = System.nanoTime();
+        Instant launched = ProcessHandle.current().info().startInstant().orElse(null);
+        if (launched != null) launchToMainMillis = System.currentTimeMillis() - launched.toEpochMilli();
+    }
+
+    private static synchronized void markFirstFrame() {
+        if (firstFrameNanos != 0) return;
+        firstFrameNanos = System.nanoTime();
+        reportIfDone();
+    }
+
+    private static synchronized void markInteractive() {
+        if (interactiveNanos != 0) return;
+        interactiveNanos = System.nanoTime();
+        reportIfDone();
+    }
+
+    private static void reportIfDone() {
+        if (reported || firstFrameNanos == 0 || interactiveNanos == 0) return;
+        reported = true;
+
+        long base = Math.max(launchToMainMillis, 0);
+        long firstFrame = base + TimeUnit.NANOSECONDS.toMillis(firstFrameNanos - mainNanos);
+        long interactive = base + TimeUnit.NANOSECONDS.toMillis(Math.max(firstFrameNanos, interactiveNanos) - mainNanos);
+        Metrics.gauge("startup.main.millis", () -> launchToMainMillis);
+        Metrics.gauge("startup.firstFrame.millis", () -> firstFrame);
+        Metrics.gauge("startup.interactive.millis", () -> interactive);
+        System.out.println("startup: main=" + launchToMainMillis + "ms firstFrame=" + firstFrame
+            + "ms interactive=" + interactive + "ms");
+
+        if (MODE.equals("exit")) System.exit(0);
+    }
+}
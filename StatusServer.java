@@ -0,0 +1,103 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read-only HTTP status for fleet monitoring, off unless -Dstrawberry.http.port is set.
+ * Binds to 127.0.0.1 by default (-Dstrawberry.http.host to change it).
+ *   GET /status   current mode, remaining time, counters and subjects as JSON
+ *   GET /metrics  the Metrics registry as "name value" lines
+ * Requests only read the last published StatusSnapshot, so a scrape never waits on
+ * or queues work for the Swing thread.
+ */
+public class StatusServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile StatusSnapshot snapshot;
+
+    private StatusServer(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        executor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "strawberry-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/status", this::status);
+        server.createContext("/metrics", this::metrics);
+        server.start();
+    }
+
+    // Returns the running server, or null when it isn't enabled or can't bind
+    public static StatusServer startIfEnabled() {
+        Integer port = Integer.getInteger("strawberry.http.port");
+        if (port == null) return null;
+        String host = System.getProperty("strawberry.http.host", "127.0.0.1");
+        try {
+            return new StatusServer(host, port);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public void publish(StatusSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void status(HttpExchange ex) throws IOException {
+        StatusSnapshot s = snapshot;
+        if (s == null) {
+            send(ex, 503, "text/plain", "starting\n");
+        } else {
+            send(ex, 200, "application/json", s.toJson());
+        }
+    }
+
+    private void metrics(HttpExchange ex) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> e : Metrics.snapshot().entrySet()) {
+            sb.append(e.getKey()).append(' ').append(e.getValue()).append('\n');
+        }
+        send(ex, 200, "text/plain", sb.toString());
+    }
+
+    private static void send(HttpExchange ex, int code, String type, String body) throws IOException {
+        try {
+            if (!"GET".equals(ex.getRequestMethod()) && !"HEAD".equals(ex.getRequestMethod())) {
+                ex.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", type + "; charset=utf-8");
+            if ("HEAD".equals(ex.getRequestMethod())) {
+                ex.sendResponseHeaders(code, -1);
+                return;
+            }
+            ex.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            ex.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of the timer state, published by the owner of a PomodoroSession
+ * whenever something changes. Readers on other threads never touch the session;
+ * the remaining time is extrapolated from the publish time while the timer runs.
+ */
+public final class StatusSnapshot {
+
+    public static final class Subject {
+        public final String name;
+        public final int sessions;
+        public final int minutes;
+
+        Subject(String name, int sessions, int minutes) {
+            this.name = name;
+            this.sessions = sessions;
+            this.minutes = minutes;
+        }
+    }
+
+    public final String mode;
+    public final boolean running;
+    public final int pomodoroCount;
+    public final int completedSessions;
+    public final int totalStudyMinutes;
+    public final String currentSubject;
+    public final List<Subject> subjects;
+    private final long remainingNanos;
+    private final long publishedNanos;
+
+    StatusSnapshot(String mode, boolean running, long remainingNanos, int pomodoroCount,
+                   int completedSessions, int totalStudyMinutes, String currentSubject,
+                   SubjectRegistry subjects) {
+        this.mode = mode;
+        this.running = running;
+        this.remainingNanos = remainingNanos;
+        this.publishedNanos = System.nanoTime();
+        this.pomodoroCount = pomodoroCount;
+        this.completedSessions = completedSessions;
+        this.totalStudyMinutes = totalStudyMinutes;
+        this.currentSubject = currentSubject;
+        List<Subject> copy = new ArrayList<>(subjects.size());
+        subjects.forEach((name, sessions, minutes) -> copy.add(new Subject(name, sessions, minutes)));
+        this.subjects = Collections.unmodifiableList(copy);
+    }
+
+    public int remainingSeconds() {
+        long rem = remainingNanos;
+        if (running) rem = Math.max(0, rem - (System.nanoTime() - publishedNanos));
+        return (int) ((rem + 999_999_999L) / 1_000_000_000L);
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(128 + subjects.size() * 64);
+        sb.append("{\"mode\":").append(quote(mode))
+            .append(",\"running\":").append(running)
+            .append(",\"remainingSeconds\":").append(remainingSeconds())
+            .append(",\"pomodoroCount\":").append(pomodoroCount)
+            .append(",\"completedSessions\":").append(completedSessions)
+            .append(",\"totalStudyMinutes\":").append(totalStudyMinutes)
+            .append(",\"currentSubject\":").append(currentSubject == null ? "null" : quote(currentSubject))
+            .append(",\"subjects\":[");
+        for (int i = 0; i < subjects.size(); i++) {
+            Subject s = subjects.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"name\":").append(quote(s.name))
+                .append(",\"sessions\":").append(s.sessions)
+                .append(",\"minutes\":").append(s.minutes).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+}
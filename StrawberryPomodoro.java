@@ -1,49 +1,72 @@
-
 import javax.swing.*;
-import javax.sound.sampled.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.*;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class StrawberryPomodoro {
 
     // 🎨 Colors
     private static final Color STRAWBERRY_PINK = new Color(255, 120, 120);
-    private static final Color LIGHT_PINK = new Color(255, 235, 235);
+    static final Color LIGHT_PINK = new Color(255, 235, 235);
     private static final Color BACKGROUND_GRAY = new Color(245, 245, 245);
-    private static final Color TEXT_DARK = new Color(60, 60, 60);
-    private static final Color BUTTON_GRAY = new Color(230, 230, 230);
-    private static final Color SUBJECT_BG = new Color(255, 210, 210);
-    private static final Color SUBJECT_SELECTED_BG = STRAWBERRY_PINK;
+    static final Color TEXT_DARK = new Color(60, 60, 60);
+    static final Color BUTTON_GRAY = new Color(230, 230, 230);
+    static final Color SUBJECT_BG = new Color(255, 210, 210);
+    static final Color SUBJECT_SELECTED_BG = STRAWBERRY_PINK;
+
+    // ⏱️ Times (session lengths live in PomodoroSession)
+    private static final int DISPLAY_REFRESH_MS = 16; // ~60 fps for the progress arc, doesn't affect accuracy
+    private static final int SYNC_INTERVAL_SECONDS = 15;
 
-    // ⏱️ Times
-    private static final int POMODORO_MIN = 25;
-    private static final int SHORT_BREAK_MIN = 5;
-    private static final int LONG_BREAK_MIN = 15;
+    // 📈 Metrics (see Metrics and PerfEvents)
+    private static final Metrics.Histogram TICK_LATENESS = Metrics.histogram("tick.lateness.nanos");
+    private static final Metrics.Histogram SUBJECT_PAINT_TIME = Metrics.histogram("subjects.paint.nanos");
+    private static final Metrics.Histogram ROLLOVER_SYNC_TIME = Metrics.histogram("rollover.sync.nanos");
+    private static final Metrics.Histogram ROLLOVER_UI_TIME = Metrics.histogram("rollover.ui.nanos");
 
     // Logic
     private Timer timer;
-    private Timer dailyCheckTimer;
-    private int totalSeconds;
-    private boolean isRunning = false;
-    private String currentMode = "Pomodoro";
-    private String currentSubject = null;
-    private int pomodoroCount = 0; // track completed Pomodoros for long break
+    private long nextTickDue = 0; // when the refresh timer should fire next, 0 if stopped
+    // All file and audio work runs here, in order, never on the EDT
+    private final IoExecutor io = new IoExecutor();
+    private final IoExecutor exports = new IoExecutor("strawberry-export"); // long scans, kept out of io's queue
+    private final IoExecutor musicScan = new IoExecutor("strawberry-music-scan"); // walks the music folders
+    private DayRolloverService dayRollover;
+    // Optional localhost status endpoint, null unless -Dstrawberry.http.port is set
+    private final StatusServer statusServer = StatusServer.startIfEnabled();
+    // Optional multi-device sync, null unless -Dstrawberry.sync.dir is set; I/O thread only
+    private final CounterSync sync = CounterSync.startIfEnabled(
+        new File("strawberry_device.txt"), new File("strawberry_sync_state.txt"));
+    // Polled by the display refresh timer, so it needs no scheduler of its own
+    private final PomodoroSession session = new PomodoroSession(null);
 
     // Progress
-    private int completedSessions = 0;
-    private int totalStudyMinutes = 0;
     private LocalDate savedDate = LocalDate.now();
+    private final ProgressJournal journal = new ProgressJournal(
+        new File("strawberry_progress.txt"), new File("strawberry_progress.journal"));
+    private final HistoryStore history = new HistoryStore(
+        new File("strawberry_history.dat"), new File("strawberry_history_subjects.txt"));
+    // Day/week/month totals for charts, kept in step with the history
+    private final RollupStore rollups = new RollupStore(new File("strawberry_rollups.dat"));
 
     // Subjects
-    private Map<String, SubjectProgress> subjects = new HashMap<>();
-    private JPanel subjectsPanel;
+    private final SubjectListModel subjectModel = new SubjectListModel();
+    private final SubjectRowRenderer subjectRenderer =
+        new SubjectRowRenderer(session.getSubjects(), session::getCurrentSubject);
+    private JList<String> subjectList;
 
     // UI
-    private JLabel timeLabel;
-    private JLabel statusLabel;
+    private TimerDisplay timerDisplay;
     private JLabel sessionsLabel;
     private JLabel timeProgressLabel;
     private JButton startButton;
@@ -53,25 +76,33 @@ public class StrawberryPomodoro {
     private JButton addSubjectButton;
 
     // Music
-    private Clip musicClip;
-    private Clip alarmClip;
-    private String[] breakMusicPaths = {
-        "D:\\Documents\\Music\\[no copyright music] 2_00 AM cute background music [rKi3oL2UDew].wav",
-        "D:\\Documents\\Music\\[no copyright music] '2_00 AM' cute background music [rKi3oL2UDew].wav",
-        "D:\\Documents\\Music\\[no copyright music] Dreamy Mode cute background music [hCtwi8XkB4o].wav",
-        "D:\\Documents\\Music\\[no copyright music] Gameplay cute background music [w4oLP7fa9Vk].wav",
-        "D:\\Documents\\Music\\[no copyright music] In Dreamland background music [DSWYAclv2I8].wav",
-        "D:\\Documents\\Music\\[no copyright music] Taiyaki cute background music [zde7oFYW4Zg].wav",
-        "D:\\Documents\\Music\\[no copyright music] Purple lofi background music [BWNx0VQJjMY].wav"
-    };
+    private final MusicPlayer musicPlayer = new MusicPlayer();
+    private final AudioCueCache audioCues = new AudioCueCache();
     private final String alarmPath = "D:\\Documents\\Music\\iphone_alarm.wav";
+    private final MusicLibrary musicLibrary = new MusicLibrary(
+        MusicLibrary.defaultDirs(), new File("strawberry_music_index.txt"), new File(alarmPath));
+    private MusicLibrary.Track nextTrack;    // I/O thread only: prepared for the coming break
+    private MusicLibrary.Track lastTrack;    // I/O thread only
+    private boolean nextTrackRequested = false;
 
     public StrawberryPomodoro() {
         JFrame frame = new JFrame("🍓 Strawberry Study Timer");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
-        frame.setLayout(new BorderLayout());
+        frame.setContentPane(new JPanel(new BorderLayout()) {
+            @Override
+            public void paint(Graphics g) {
+                super.paint(g);
+                StartupProbe.firstFrame();
+            }
+        });
         frame.getContentPane().setBackground(BACKGROUND_GRAY);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                shutdown();
+            }
+        });
 
         // ===== HEADER =====
         JPanel header = new JPanel();
@@ -104,44 +135,13 @@ public class StrawberryPomodoro {
         leftPanel.setBackground(Color.WHITE);
         leftPanel.setBorder(BorderFactory.createEmptyBorder(40, 40, 40, 40));
 
-        // Timer panel
-        JPanel timerPanel = new JPanel(new GridBagLayout()) {
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2 = (Graphics2D) g;
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                int size = 260;
-                int x = (getWidth() - size) / 2;
-                int y = (getHeight() - size) / 2;
-                g2.setStroke(new BasicStroke(16));
-                g2.setColor(new Color(255, 190, 190));
-                g2.drawOval(x, y, size, size);
-            }
-        };
-        timerPanel.setPreferredSize(new Dimension(500, 340));
-        timerPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 360));
-        timerPanel.setBackground(Color.WHITE);
-
-        JPanel timerText = new JPanel();
-        timerText.setLayout(new BoxLayout(timerText, BoxLayout.Y_AXIS));
-        timerText.setOpaque(false);
-
-        timeLabel = new JLabel("25:00");
-        timeLabel.setFont(new Font("SansSerif", Font.BOLD, 64));
-        timeLabel.setForeground(STRAWBERRY_PINK);
-        timeLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        statusLabel = new JLabel("Focus Session");
-        statusLabel.setFont(new Font("SansSerif", Font.PLAIN, 16));
-        statusLabel.setForeground(new Color(255, 140, 140));
-        statusLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        timerText.add(timeLabel);
-        timerText.add(Box.createVerticalStrut(8));
-        timerText.add(statusLabel);
-        timerPanel.add(timerText);
-        leftPanel.add(timerPanel);
+        // Timer display (ring, progress arc, digits and status)
+        timerDisplay = new TimerDisplay(STRAWBERRY_PINK);
+        timerDisplay.setStatus("Focus Session");
+        timerDisplay.setPreferredSize(new Dimension(500, 340));
+        timerDisplay.setMaximumSize(new Dimension(Integer.MAX_VALUE, 360));
+        timerDisplay.setAlignmentX(Component.CENTER_ALIGNMENT);
+        leftPanel.add(timerDisplay);
         leftPanel.add(Box.createVerticalStrut(30));
 
         // Mode buttons
@@ -190,14 +190,22 @@ public class StrawberryPomodoro {
         leftPanel.add(Box.createVerticalStrut(12));
         leftPanel.add(sessionsLabel);
         leftPanel.add(timeProgressLabel);
+        leftPanel.add(Box.createVerticalStrut(12));
+
+        JPanel exportPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
+        exportPanel.setBackground(Color.WHITE);
+        JButton exportButton = createModeButton("📤 Export");
+        exportButton.addActionListener(e -> exportHistory(frame));
+        exportPanel.add(exportButton);
+        leftPanel.add(exportPanel);
 
         mainContent.add(leftPanel, BorderLayout.CENTER);
 
         // ===== RIGHT PANEL (SUBJECTS) =====
-        subjectsPanel = new JPanel();
-        subjectsPanel.setLayout(new BoxLayout(subjectsPanel, BoxLayout.Y_AXIS));
+        JPanel subjectsPanel = new JPanel(new BorderLayout(0, 10));
         subjectsPanel.setBackground(LIGHT_PINK);
         subjectsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        subjectsPanel.setPreferredSize(new Dimension(380, 0));
 
         addSubjectButton = new JButton("+ Add Subject");
         addSubjectButton.setFont(new Font("SansSerif", Font.PLAIN, 14));
@@ -205,206 +213,400 @@ public class StrawberryPomodoro {
         addSubjectButton.setBackground(Color.WHITE);
         addSubjectButton.setBorder(BorderFactory.createLineBorder(new Color(255, 160, 160), 2, true));
         addSubjectButton.setHorizontalAlignment(SwingConstants.LEFT);
-        addSubjectButton.setMaximumSize(new Dimension(350, 35));
-        addSubjectButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        addSubjectButton.setPreferredSize(new Dimension(350, 35));
         addSubjectButton.addActionListener(e -> addSubject());
 
-        subjectsPanel.add(addSubjectButton);
-        subjectsPanel.add(Box.createVerticalStrut(10));
+        // Rows are painted by one shared renderer, so only visible rows cost anything
+        subjectList = new JList<String>(subjectModel) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                PerfEvents.SubjectListPaint event = new PerfEvents.SubjectListPaint();
+                event.begin();
+                long start = Metrics.start();
+                int before = subjectRenderer.rendered;
+                super.paintComponent(g);
+                SUBJECT_PAINT_TIME.recordSince(start);
+                event.rowsRendered = subjectRenderer.rendered - before;
+                event.totalRows = subjectModel.getSize();
+                event.commit();
+            }
+        };
+        subjectList.setCellRenderer(subjectRenderer);
+        subjectList.setFixedCellHeight(SubjectRowRenderer.ROW_HEIGHT);
+        subjectList.setFixedCellWidth(350);
+        subjectList.setBackground(LIGHT_PINK);
+        subjectList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        subjectList.addMouseListener(new MouseAdapter() {
+            private int pressedRow = -1;
+            private boolean pressedRemove;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                pressedRow = SwingUtilities.isLeftMouseButton(e) ? subjectRowAt(e.getPoint()) : -1;
+                pressedRemove = pressedRow >= 0 && isRemoveHit(pressedRow, e.getPoint());
+            }
 
-        JScrollPane scrollPane = new JScrollPane(subjectsPanel);
+            // Like the buttons the rows replaced: left button, released over what was pressed
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                int row = pressedRow;
+                pressedRow = -1;
+                if (row < 0 || !SwingUtilities.isLeftMouseButton(e)) return;
+                if (subjectRowAt(e.getPoint()) != row || isRemoveHit(row, e.getPoint()) != pressedRemove) return;
+                handleSubjectClick(row, pressedRemove);
+            }
+        });
+        // The painted buttons can't take focus, so the keyboard acts on the selected row
+        subjectList.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "selectSubject");
+        subjectList.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0), "removeSubject");
+        subjectList.getActionMap().put("selectSubject", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int row = subjectList.getSelectedIndex();
+                if (row >= 0) handleSubjectClick(row, false);
+            }
+        });
+        subjectList.getActionMap().put("removeSubject", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int row = subjectList.getSelectedIndex();
+                if (row >= 0) handleSubjectClick(row, true);
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(subjectList);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
-        scrollPane.setPreferredSize(new Dimension(380, 0));
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
 
-        mainContent.add(scrollPane, BorderLayout.EAST);
+        subjectsPanel.add(addSubjectButton, BorderLayout.NORTH);
+        subjectsPanel.add(scrollPane, BorderLayout.CENTER);
+        mainContent.add(subjectsPanel, BorderLayout.EAST);
 
         // ===== TIMER LOGIC =====
-        timer = new Timer(1000, e -> {
-            if (totalSeconds > 0) {
-                totalSeconds--;
-                timeLabel.setText(formatTime(totalSeconds));
-            } else {
+        timer = new Timer(DISPLAY_REFRESH_MS, e -> {
+            long now = System.nanoTime();
+            if (nextTickDue != 0) recordTickLateness(now - nextTickDue);
+            nextTickDue = now + TimeUnit.MILLISECONDS.toNanos(DISPLAY_REFRESH_MS);
+            session.poll();
+            refreshDisplay();
+            prefetchBreakMusic();
+        });
+
+        session.setListener(new PomodoroSession.Listener() {
+            @Override
+            public void modeChanged(String mode) {
+                nextTrackRequested = false;
+                showMode(mode);
+                publishStatus();
+            }
+
+            @Override
+            public void started(String mode, boolean resumed) {
+                if (!resumed) logEvent(ProgressJournal.START, mode, session.getCurrentSubject());
+                nextTickDue = 0;
+                timer.start();
+                startButton.setText("⏸ Pause");
+                publishStatus();
+            }
+
+            @Override
+            public void paused(String mode) {
                 timer.stop();
-                isRunning = false;
-                startButton.setText("▶ Start");
+                refreshDisplay();
+                startButton.setText("▶ Resume");
+                publishStatus();
+            }
+
+            @Override
+            public void finished(String mode) {
                 playAlarm();
+            }
 
-                if (currentMode.equals("Pomodoro")) {
-                    pomodoroCount++;
-                    completedSessions++;
-                    totalStudyMinutes += POMODORO_MIN;
-                    if (currentSubject != null) {
-                        SubjectProgress sp = subjects.get(currentSubject);
-                        if (sp != null) {
-                            sp.sessions++;
-                            sp.minutes += POMODORO_MIN;
-                        }
-                    }
-                    sessionsLabel.setText("Completed Sessions: " + completedSessions);
-                    timeProgressLabel.setText("Total Study Time: " + totalStudyMinutes + " min");
-                    saveProgress();
-
-                    // Auto switch to break
-                    if (pomodoroCount % 4 == 0) setMode("Long Break");
-                    else setMode("Short Break");
-                    toggleTimer();
-                } else {
-                    // Break ended → start next Pomodoro automatically
-                    setMode("Pomodoro");
-                    toggleTimer();
-                }
+            @Override
+            public void pomodoroCompleted(String subject, int minutes) {
+                if (subject != null) subjectModel.changed(subject);
+                updateProgressLabels();
+                logEvent(ProgressJournal.COMPLETE, minutes, subject);
+                recordHistory(subject, minutes);
+                syncCompleted(subject, minutes);
+                publishStatus();
             }
         });
 
-        // ===== AUTO RESET AT MIDNIGHT =====
-        dailyCheckTimer = new Timer(1000 * 60, e -> {
-            if (!savedDate.equals(LocalDate.now())) {
-                savedDate = LocalDate.now();
-                completedSessions = 0;
-                totalStudyMinutes = 0;
-                sessionsLabel.setText("Completed Sessions: 0");
-                timeProgressLabel.setText("Total Study Time: 0 min");
-                for (SubjectProgress sp : subjects.values()) {
-                    sp.sessions = 0;
-                    sp.minutes = 0;
-                }
-                updateSubjectsPanel();
-                saveProgress();
+        // ===== BUTTON ACTIONS =====
+        pomodoroButton.addActionListener(e -> session.setMode(PomodoroSession.POMODORO));
+        shortBreakButton.addActionListener(e -> session.setMode(PomodoroSession.SHORT_BREAK));
+        longBreakButton.addActionListener(e -> session.setMode(PomodoroSession.LONG_BREAK));
+        startButton.addActionListener(e -> session.toggle());
+        resetButton.addActionListener(e -> session.reset());
+
+        // Show the window first; saved progress, the sound system and the music index
+        // are all brought up on the I/O thread afterwards
+        session.setMode(PomodoroSession.POMODORO);
+        frame.setVisible(true);
+        loadProgress();
+    }
+
+    // Runs once saved progress is on screen, so none of it delays the first frame
+    private void warmUpInBackground() {
+        io.execute(() -> {
+            try {
+                history.open();
+                rollups.open(history);
+            } catch (IOException e) {
+                e.printStackTrace();
             }
         });
-        dailyCheckTimer.start();
+        io.execute(() -> audioCues.preload(alarmPath)); // first touch of the Java Sound mixer
+        musicScan.execute(() -> {
+            try {
+                musicLibrary.open();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        startSync();
+    }
 
-        // ===== BUTTON ACTIONS =====
-        pomodoroButton.addActionListener(e -> setMode("Pomodoro"));
-        shortBreakButton.addActionListener(e -> setMode("Short Break"));
-        longBreakButton.addActionListener(e -> setMode("Long Break"));
-        startButton.addActionListener(e -> toggleTimer());
-        resetButton.addActionListener(e -> resetTimer());
+    // ===== AUTO RESET AT MIDNIGHT =====
+    // Started once loadProgress() has brought back the saved day
+    private void startDayRollover() {
+        dayRollover = new DayRolloverService(io.scheduler(), savedDate, this::onNewDay);
+        dayRollover.start();
+    }
 
-        setMode("Pomodoro");
-        loadProgress();
-        frame.setVisible(true);
+    // Runs on the I/O thread: flush the closed day, then reset the UI in one step
+    private void onNewDay(LocalDate closedDay, LocalDate today) {
+        PerfEvents.DayRollover event = new PerfEvents.DayRollover();
+        event.begin();
+        long start = Metrics.start();
+        try {
+            history.sync(); // the closed day's sessions are already in the history store
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        ROLLOVER_SYNC_TIME.recordSince(start);
+        event.closedDay = closedDay.toString();
+        event.commit();
+
+        SwingUtilities.invokeLater(() -> {
+            long uiStart = Metrics.start();
+            savedDate = today;
+            session.resetDay();
+            updateProgressLabels();
+            subjectModel.allChanged();
+            publishStatus();
+            logEvent(ProgressJournal.DAY, savedDate);
+            saveProgress();
+            ROLLOVER_UI_TIME.recordSince(uiStart);
+        });
     }
 
     // ===== SUBJECT LOGIC =====
     private void addSubject() {
-        String subject = JOptionPane.showInputDialog("Enter subject name:");
-        if (subject != null && !subject.trim().isEmpty() && !subjects.containsKey(subject)) {
-            subjects.put(subject, new SubjectProgress());
-            currentSubject = subject;
-            updateSubjectsPanel();
+        String subject = SubjectRegistry.normalize(JOptionPane.showInputDialog("Enter subject name:"));
+        if (session.addSubject(subject)) {
+            subjectModel.add(subject);
+            selectSubject(subject);
+            logEvent(ProgressJournal.ADD, subject);
+            publishStatus();
         }
     }
 
-    private void updateSubjectsPanel() {
-        subjectsPanel.removeAll();
-        subjectsPanel.add(addSubjectButton);
-        subjectsPanel.add(Box.createVerticalStrut(10));
-
-        for (String name : subjects.keySet()) {
-            SubjectProgress sp = subjects.get(name);
-
-            JTextArea label = new JTextArea(name + ": " + sp.sessions + " sessions, " + sp.minutes + " min");
-            label.setFont(new Font("SansSerif", Font.PLAIN, 14));
-            label.setForeground(TEXT_DARK);
-            label.setEditable(false);
-            label.setLineWrap(true);
-            label.setWrapStyleWord(true);
-            label.setOpaque(false);
-
-            JButton selectButton = new JButton("Select");
-            selectButton.setFont(new Font("SansSerif", Font.PLAIN, 12));
-            selectButton.setBackground(BUTTON_GRAY);
-            selectButton.setForeground(TEXT_DARK);
-            selectButton.setFocusPainted(false);
-            selectButton.addActionListener(e -> {
-                currentSubject = name;
-                updateSubjectsPanel();
-                label.scrollRectToVisible(label.getBounds());
-            });
+    private void selectSubject(String name) {
+        String previous = session.getCurrentSubject();
+        session.selectSubject(name);
+        subjectModel.changed(previous);
+        subjectModel.changed(name);
+        int row = subjectModel.indexOf(name);
+        if (row >= 0) subjectList.ensureIndexIsVisible(row);
+        publishStatus();
+    }
 
-            JButton removeButton = new JButton("Remove");
-            removeButton.setFont(new Font("SansSerif", Font.PLAIN, 12));
-            removeButton.setBackground(new Color(255, 100, 100));
-            removeButton.setForeground(Color.WHITE);
-            removeButton.setFocusPainted(false);
-            removeButton.addActionListener(e -> {
-                subjects.remove(name);
-                if (currentSubject != null && currentSubject.equals(name)) currentSubject = null;
-                updateSubjectsPanel();
-                saveProgress();
-            });
+    private void removeSubject(String name) {
+        session.removeSubject(name);
+        subjectModel.remove(name);
+        logEvent(ProgressJournal.REMOVE, name);
+        publishStatus();
+    }
 
-            JPanel panel = new JPanel();
-            panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-            panel.setBackground(name.equals(currentSubject) ? SUBJECT_SELECTED_BG : SUBJECT_BG);
-            panel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+    // ===== SYNC =====
+    // Restores the saved counters, then syncs periodically. Only the first time sync
+    // is on is this device seeded from what it shows, which can't include merges yet.
+    private void startSync() {
+        if (sync == null) return;
+        ProgressJournal.State local = ProgressJournal.State.of(savedDate, session);
+
+        io.execute(() -> {
+            boolean restored;
+            try {
+                restored = sync.restore();
+            } catch (IOException e) {
+                e.printStackTrace();
+                restored = true; // unreadable: better to share less than to count others twice
+            }
+            if (!restored) {
+                sync.adopt(local.date, null, local.completedSessions, local.totalStudyMinutes);
+                for (Map.Entry<String, SubjectProgress> e : local.subjects.entrySet()) {
+                    sync.adopt(local.date, e.getKey(), e.getValue().sessions, e.getValue().minutes);
+                }
+            }
+            syncNow();
+            io.scheduler().schedule(this::syncTick, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        });
+    }
 
-            JPanel topRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
-            topRow.setOpaque(false);
-            topRow.add(label);
-            topRow.add(selectButton);
-            topRow.add(removeButton);
+    private void syncTick() {
+        syncNow();
+        io.scheduler().schedule(this::syncTick, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
 
-            panel.add(topRow);
-            panel.setMaximumSize(new Dimension(350, 80));
+    private void syncCompleted(String subject, int minutes) {
+        if (sync == null) return;
+        LocalDate day = savedDate;
+        io.execute(() -> {
+            sync.recordLocal(day, subject, minutes);
+            syncNow();
+        });
+    }
+
+    // I/O thread: exchange deltas, then show the merged counters that changed
+    private void syncNow() {
+        try {
+            sync.push();
+            sync.pull();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        List<CounterSync.Entry> changes = new ArrayList<>();
+        sync.drainChanges((day, subject, sessions, minutes) ->
+            changes.add(new CounterSync.Entry((int) day.toEpochDay(), subject, sync.deviceId(), sessions, minutes)));
+        if (!changes.isEmpty()) SwingUtilities.invokeLater(() -> applySynced(changes));
+    }
 
-            subjectsPanel.add(panel);
-            subjectsPanel.add(Box.createVerticalStrut(10));
+    private void applySynced(List<CounterSync.Entry> changes) {
+        for (CounterSync.Entry e : changes) {
+            if (e.epochDay != savedDate.toEpochDay()) continue; // another day, nothing on screen
+            if (e.subject.equals(CounterSync.TOTALS)) {
+                session.setTotals(e.sessions, e.minutes);
+            } else if (session.setSubjectProgress(e.subject, e.sessions, e.minutes)) {
+                subjectModel.add(e.subject);
+            } else {
+                subjectModel.changed(e.subject);
+            }
         }
+        updateProgressLabels();
+        publishStatus();
+        saveProgress();
+    }
 
-        subjectsPanel.revalidate();
-        subjectsPanel.repaint();
+    // ===== EXPORT =====
+    // Handed over from the io thread, so the history was opened and every session recorded
+    // before the click is written first; the scan itself runs on exports, out of io's way
+    private void exportHistory(JFrame frame) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export study history (.csv, .json, add .gz to compress)");
+        chooser.setSelectedFile(new File("strawberry_history.csv"));
+        if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+
+        io.execute(() -> exports.submit(() -> {
+            try {
+                return HistoryExporter.export(history, HistoryExporter.FIRST_DAY, HistoryExporter.LAST_DAY, file);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }, result -> {
+            if (result == null) {
+                JOptionPane.showMessageDialog(frame, "Export failed: " + file, "Export", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(frame, "Exported " + result.rows + " sessions to " + file.getName());
+            }
+        }));
     }
 
-    static class SubjectProgress {
-        int sessions = 0;
-        int minutes = 0;
+    // Row under the point, or -1 below the last row
+    private int subjectRowAt(Point p) {
+        int row = subjectList.locationToIndex(p);
+        if (row < 0) return -1;
+        Rectangle cell = subjectList.getCellBounds(row, row);
+        return cell != null && cell.contains(p) ? row : -1;
+    }
+
+    private boolean isRemoveHit(int row, Point p) {
+        return subjectRenderer.isRemoveHit(subjectList, row, subjectList.getCellBounds(row, row), p);
+    }
+
+    private void handleSubjectClick(int row, boolean remove) {
+        String name = subjectModel.getElementAt(row);
+        if (remove) removeSubject(name);
+        else selectSubject(name);
     }
 
     // ===== MUSIC & ALARM =====
+    // Queued on the I/O thread so play and stop keep the order they were asked in
     private void playMusicRandom() {
         stopMusic();
-        if (breakMusicPaths.length == 0) return;
-
-        int index = (int) (Math.random() * breakMusicPaths.length);
-        String path = breakMusicPaths[index];
+        io.execute(() -> {
+            MusicLibrary.Track track = nextTrack != null ? nextTrack : musicLibrary.pickRandom(lastTrack);
+            nextTrack = null;
+            if (track == null) return;
+            lastTrack = track;
+
+            // Streams and loops on the player's own thread
+            musicPlayer.play(track.file());
+        });
+    }
 
-        try {
-            File audioFile = new File(path);
-            if (!audioFile.exists()) return;
-
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(audioFile);
-            musicClip = AudioSystem.getClip();
-            musicClip.open(audioStream);
-            musicClip.start();
-            musicClip.loop(Clip.LOOP_CONTINUOUSLY);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    // In the last minute of a Pomodoro, pick the break track and get it ready to play
+    private void prefetchBreakMusic() {
+        if (nextTrackRequested || !session.getMode().equals(PomodoroSession.POMODORO)) return;
+        if (session.remainingNanos() > TimeUnit.MINUTES.toNanos(1)) return;
+        nextTrackRequested = true;
+        io.execute(() -> {
+            nextTrack = musicLibrary.pickRandom(lastTrack);
+            if (nextTrack != null) musicPlayer.prepare(nextTrack.file());
+        });
     }
 
     private void stopMusic() {
-        if (musicClip != null && musicClip.isRunning()) {
-            musicClip.stop();
-            musicClip.close();
-        }
+        io.execute(musicPlayer::stop);
     }
 
     private void playAlarm() {
-        try {
-            File file = new File(alarmPath);
-            if (!file.exists()) return;
-
-            AudioInputStream stream = AudioSystem.getAudioInputStream(file);
-            alarmClip = AudioSystem.getClip();
-            alarmClip.open(stream);
-            alarmClip.start();
-        } catch (Exception e) {
-            e.printStackTrace();
+        // Decoded once, then replayed from the same open line
+        io.execute(() -> audioCues.play(alarmPath));
+    }
+
+    private void shutdown() {
+        if (dayRollover != null) dayRollover.close();
+        if (sync != null) {
+            io.execute(() -> {
+                try {
+                    sync.push();
+                    sync.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
         }
+        if (statusServer != null) statusServer.close();
+        io.execute(() -> {
+            musicPlayer.close();
+            audioCues.close();
+            try {
+                journal.close();
+                history.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        io.shutdown(2, TimeUnit.SECONDS);
+        exports.shutdown(0, TimeUnit.SECONDS); // an unfinished export is abandoned
+        musicScan.shutdown(0, TimeUnit.SECONDS); // so is a scan; the saved index stays as it was
     }
 
     // ===== HELPERS =====
@@ -430,102 +632,154 @@ public class StrawberryPomodoro {
         return btn;
     }
 
-    private void setMode(String mode) {
+    // Applies a mode switch from the session to the buttons, status and music
+    private void showMode(String mode) {
         timer.stop();
-        isRunning = false;
         startButton.setText("▶ Start");
 
         pomodoroButton.setBackground(BUTTON_GRAY);
         shortBreakButton.setBackground(BUTTON_GRAY);
         longBreakButton.setBackground(BUTTON_GRAY);
 
-        int minutes = POMODORO_MIN;
-        statusLabel.setText("Focus Session");
+        timerDisplay.setStatus("Focus Session");
         stopMusic();
 
-        if (mode.equals("Short Break")) {
-            minutes = SHORT_BREAK_MIN;
-            statusLabel.setText("Short Break");
+        if (mode.equals(PomodoroSession.SHORT_BREAK)) {
+            timerDisplay.setStatus("Short Break");
             shortBreakButton.setBackground(STRAWBERRY_PINK);
             playMusicRandom();
-        } else if (mode.equals("Long Break")) {
-            minutes = LONG_BREAK_MIN;
-            statusLabel.setText("Long Break");
+        } else if (mode.equals(PomodoroSession.LONG_BREAK)) {
+            timerDisplay.setStatus("Long Break");
             longBreakButton.setBackground(STRAWBERRY_PINK);
             playMusicRandom();
         } else {
             pomodoroButton.setBackground(STRAWBERRY_PINK);
         }
+        refreshDisplay();
+    }
 
-        currentMode = mode;
-        totalSeconds = minutes * 60;
-        timeLabel.setText(formatTime(totalSeconds));
+    private void updateProgressLabels() {
+        sessionsLabel.setText("Completed Sessions: " + session.getCompletedSessions());
+        timeProgressLabel.setText("Total Study Time: " + session.getTotalStudyMinutes() + " min");
     }
 
-    private void toggleTimer() {
-        if (!isRunning) {
-            timer.start();
-            startButton.setText("⏸ Pause");
-            isRunning = true;
-        } else {
-            timer.stop();
-            startButton.setText("▶ Resume");
-            isRunning = false;
-        }
+    private void recordTickLateness(long lateNanos) {
+        TICK_LATENESS.record(lateNanos);
+        PerfEvents.tick(lateNanos, session.remainingSeconds());
     }
 
-    private void resetTimer() {
-        timer.stop();
-        setMode(currentMode);
+    // Hands the HTTP endpoint a fresh copy; called on every state change, not per frame
+    private void publishStatus() {
+        if (statusServer != null) statusServer.publish(session.snapshot());
     }
 
-    private String formatTime(int sec) {
-        return String.format("%02d:%02d", sec / 60, sec % 60);
+    private void refreshDisplay() {
+        double fraction = (double) session.remainingNanos() / session.durationNanos();
+        timerDisplay.setTime(session.remainingSeconds(), fraction);
     }
 
     // ===== SAVE/LOAD =====
+    private void logEvent(String type, Object... fields) {
+        io.execute(() -> {
+            try {
+                journal.append(type, fields);
+                if (journal.needsCompaction()) SwingUtilities.invokeLater(this::saveProgress);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void recordHistory(String subject, int minutes) {
+        LocalDate day = LocalDate.now();
+        io.execute(() -> {
+            try {
+                history.record(day, subject, minutes);
+                rollups.catchUp(history);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        io.executeCoalesced("saveRollups", () -> {
+            try {
+                rollups.save();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Folds the journal into a fresh snapshot of the current totals.
+    // The copy is taken on the EDT, so it matches every event queued before it.
     private void saveProgress() {
-        try (PrintWriter pw = new PrintWriter("strawberry_progress.txt")) {
-            pw.println(LocalDate.now());
-            pw.println(completedSessions);
-            pw.println(totalStudyMinutes);
-            pw.println(subjects.size());
-            for (String name : subjects.keySet()) {
-                SubjectProgress sp = subjects.get(name);
-                pw.println(name);
-                pw.println(sp.sessions);
-                pw.println(sp.minutes);
+        ProgressJournal.State state = ProgressJournal.State.of(savedDate, session);
+        io.executeCoalesced("saveProgress", () -> {
+            try {
+                journal.compact(state);
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     private void loadProgress() {
-        File file = new File("strawberry_progress.txt");
-        if (!file.exists()) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            savedDate = LocalDate.parse(br.readLine());
-            completedSessions = Integer.parseInt(br.readLine());
-            totalStudyMinutes = Integer.parseInt(br.readLine());
-            int n = Integer.parseInt(br.readLine());
-            for (int i = 0; i < n; i++) {
-                String name = br.readLine();
-                SubjectProgress sp = new SubjectProgress();
-                sp.sessions = Integer.parseInt(br.readLine());
-                sp.minutes = Integer.parseInt(br.readLine());
-                subjects.put(name, sp);
+        io.submit(() -> {
+            ProgressJournal.State state = null;
+            try {
+                state = journal.recover();
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-            sessionsLabel.setText("Completed Sessions: " + completedSessions);
-            timeProgressLabel.setText("Total Study Time: " + totalStudyMinutes + " min");
-            updateSubjectsPanel();
-        } catch (Exception e) {
-            e.printStackTrace();
+            return state;
+        }, state -> {
+            if (state != null) {
+                savedDate = state.date;
+                session.restore(state.completedSessions, state.totalStudyMinutes, state.subjects);
+                subjectModel.setAll(session.getSubjects().names());
+                updateProgressLabels();
+                publishStatus();
+            }
+            startDayRollover();
+            StartupProbe.interactive();
+            warmUpInBackground();
+        });
+    }
+
+    // java StrawberryPomodoro --export FILE [--from YYYY-MM-DD] [--to YYYY-MM-DD]
+    private static void exportFromCommandLine(String[] args) throws IOException {
+        File file = null;
+        LocalDate from = HistoryExporter.FIRST_DAY;
+        LocalDate to = HistoryExporter.LAST_DAY;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--export")) file = new File(args[i + 1]);
+            else if (args[i].equals("--from")) from = LocalDate.parse(args[i + 1]);
+            else if (args[i].equals("--to")) to = LocalDate.parse(args[i + 1]);
+        }
+        if (file == null) {
+            System.err.println("usage: --export FILE [--from YYYY-MM-DD] [--to YYYY-MM-DD]");
+            return;
+        }
+
+        try (HistoryStore store = new HistoryStore(
+                new File("strawberry_history.dat"), new File("strawberry_history_subjects.txt"))) {
+            store.open();
+            HistoryExporter.Result r = HistoryExporter.export(store, from, to, file);
+            System.out.printf("%d sessions, %.1f MB in %.2f s (%.1f MB/s) -> %s%n",
+                r.rows, r.bytes / (1024.0 * 1024), r.nanos / 1e9, r.megabytesPerSecond(), file);
         }
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--export")) {
+            exportFromCommandLine(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--simulate")) {
+            Simulation.main(args);
+            return;
+        }
+        StartupProbe.main();
+        EdtStallMonitor.installIfEnabled();
         SwingUtilities.invokeLater(StrawberryPomodoro::new);
     }
 }
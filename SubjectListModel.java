@@ -0,0 +1,72 @@
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Subject names in display order for the subjects JList.
+ * Counter or selection changes only fire an event for the affected row, so the list
+ * repaints that row instead of rebuilding every subject.
+ */
+public class SubjectListModel extends AbstractListModel<String> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> rows = new HashMap<>();
+
+    @Override
+    public int getSize() {
+        return names.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return names.get(index);
+    }
+
+    public int indexOf(String name) {
+        Integer row = name == null ? null : rows.get(name);
+        return row == null ? -1 : row;
+    }
+
+    public void add(String name) {
+        if (rows.containsKey(name)) return;
+        names.add(name);
+        rows.put(name, names.size() - 1);
+        fireIntervalAdded(this, names.size() - 1, names.size() - 1);
+    }
+
+    public void remove(String name) {
+        Integer row = rows.remove(name);
+        if (row == null) return;
+        names.remove((int) row);
+        for (int i = row; i < names.size(); i++) rows.put(names.get(i), i);
+        fireIntervalRemoved(this, row, row);
+    }
+
+    public void setAll(Iterable<String> all) {
+        if (!names.isEmpty()) {
+            int last = names.size() - 1;
+            names.clear();
+            rows.clear();
+            fireIntervalRemoved(this, 0, last);
+        }
+        for (String name : all) {
+            if (rows.containsKey(name)) continue;
+            rows.put(name, names.size());
+            names.add(name);
+        }
+        if (!names.isEmpty()) fireIntervalAdded(this, 0, names.size() - 1);
+    }
+
+    // The row's counters or highlight changed
+    public void changed(String name) {
+        int row = indexOf(name);
+        if (row >= 0) fireContentsChanged(this, row, row);
+    }
+
+    public void allChanged() {
+        if (!names.isEmpty()) fireContentsChanged(this, 0, names.size() - 1);
+    }
+}
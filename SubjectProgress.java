@@ -0,0 +1,5 @@
+/** Sessions and minutes studied for one subject today. */
+public class SubjectProgress {
+    int sessions = 0;
+    int minutes = 0;
+}
@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Today's per-subject counters, safe to update from any thread.
+ * Each subject is interned to an int id; its sessions and minutes are packed into one
+ * long (sessions in the high half, minutes in the low half), so recording a session is
+ * a single lock-free getAndAdd and a reader always sees a matching pair.
+ * Slots live in fixed pages that are never moved, so growing never blocks a writer.
+ * Adding and removing subjects is rare and takes a lock; ids of removed subjects are
+ * not reused, which keeps iteration in the order subjects were added.
+ */
+public class SubjectRegistry {
+
+    public static final int NO_SUBJECT = -1;
+
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final long ONE_SESSION = 1L << 32;
+
+    public interface Visitor {
+        void visit(String name, int sessions, int minutes);
+    }
+
+    private static final class Page {
+        final AtomicLongArray counts = new AtomicLongArray(PAGE_SIZE);
+        final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(PAGE_SIZE); // null once removed
+    }
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Page[] pages = new Page[0];
+    private volatile int nextId = 0; // ids below this are published
+
+    public static int sessionsOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    public static int minutesOf(long packed) {
+        return (int) packed;
+    }
+
+    // Tabs and line breaks become spaces, so a name reads back the same from every file it's saved in
+    public static String normalize(String name) {
+        return name == null ? null : name.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    // Returns the new id, or NO_SUBJECT if the name is blank, not normalized or already registered
+    public synchronized int add(String name) {
+        if (name == null || name.trim().isEmpty() || !name.equals(normalize(name)) || ids.containsKey(name)) return NO_SUBJECT;
+        int id = nextId;
+        if (id >> PAGE_BITS == pages.length) {
+            Page[] grown = new Page[pages.length + 1];
+            System.arraycopy(pages, 0, grown, 0, pages.length);
+            grown[pages.length] = new Page();
+            pages = grown;
+        }
+        Page page = pages[id >> PAGE_BITS];
+        page.counts.set(id & (PAGE_SIZE - 1), 0);
+        page.names.set(id & (PAGE_SIZE - 1), name);
+        ids.put(name, id);
+        nextId = id + 1;
+        return id;
+    }
+
+    public synchronized boolean remove(String name) {
+        Integer id = ids.remove(name);
+        if (id == null) return false;
+        pages[id >> PAGE_BITS].names.set(id & (PAGE_SIZE - 1), null);
+        return true;
+    }
+
+    public int idOf(String name) {
+        Integer id = name == null ? null : ids.get(name);
+        return id == null ? NO_SUBJECT : id;
+    }
+
+    public boolean contains(String name) {
+        return name != null && ids.containsKey(name);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    // One completed session; false if the subject isn't registered
+    public boolean record(String name, int minutes) {
+        return record(idOf(name), minutes);
+    }
+
+    public boolean record(int id, int minutes) {
+        if (id < 0 || id >= nextId) return false;
+        pages[id >> PAGE_BITS].counts.getAndAdd(id & (PAGE_SIZE - 1), ONE_SESSION + minutes);
+        return true;
+    }
+
+    // Packed sessions/minutes for one subject, 0 if unknown; see sessionsOf/minutesOf
+    public long get(String name) {
+        int id = idOf(name);
+        return id < 0 ? 0 : pages[id >> PAGE_BITS].counts.get(id & (PAGE_SIZE - 1));
+    }
+
+    public void set(String name, int sessions, int minutes) {
+        int id = idOf(name);
+        if (id >= 0) pages[id >> PAGE_BITS].counts.set(id & (PAGE_SIZE - 1), ((long) sessions << 32) | (minutes & 0xFFFFFFFFL));
+    }
+
+    // Midnight: every counter back to zero, subjects stay
+    public void resetAll() {
+        int n = nextId;
+        Page[] p = pages;
+        for (int id = 0; id < n; id++) p[id >> PAGE_BITS].counts.set(id & (PAGE_SIZE - 1), 0);
+    }
+
+    // Visits live subjects in the order they were added; each pair is read atomically
+    public void forEach(Visitor visitor) {
+        int n = nextId;
+        Page[] p = pages;
+        for (int id = 0; id < n; id++) {
+            Page page = p[id >> PAGE_BITS];
+            String name = page.names.get(id & (PAGE_SIZE - 1));
+            if (name == null) continue;
+            long packed = page.counts.get(id & (PAGE_SIZE - 1));
+            visitor.visit(name, sessionsOf(packed), minutesOf(packed));
+        }
+    }
+
+    public List<String> names() {
+        List<String> out = new ArrayList<>(size());
+        forEach((name, sessions, minutes) -> out.add(name));
+        return out;
+    }
+}
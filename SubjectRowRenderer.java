@@ -0,0 +1,84 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.Supplier;
+
+/**
+ * Paints one subject row of the subject list. The buttons are drawn only; clicks are
+ * mapped back with isRemoveHit(), and Enter/Delete on the list stand in for them from
+ * the keyboard. Counts come straight from the SubjectRegistry.
+ * It's a top-level class, and the colours it shares with the window are package-private,
+ * so a row can be painted without building the window.
+ */
+public class SubjectRowRenderer implements ListCellRenderer<String> {
+    static final int ROW_HEIGHT = 52;
+
+    int rendered = 0; // rows painted so far, for the paint metrics
+
+    private final JPanel row = new JPanel(new BorderLayout());
+    private final JPanel card = new JPanel(new BorderLayout(5, 0));
+    private final JLabel label = new JLabel();
+    private final JButton selectButton = new JButton("Select");
+    private final JButton removeButton = new JButton("Remove");
+    private final SubjectRegistry subjects;
+    private final Supplier<String> currentSubject;
+
+    public SubjectRowRenderer(SubjectRegistry subjects, Supplier<String> currentSubject) {
+        this.subjects = subjects;
+        this.currentSubject = currentSubject;
+
+        label.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        label.setForeground(StrawberryPomodoro.TEXT_DARK);
+
+        selectButton.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        selectButton.setBackground(StrawberryPomodoro.BUTTON_GRAY);
+        selectButton.setForeground(StrawberryPomodoro.TEXT_DARK);
+        selectButton.setFocusPainted(false);
+
+        removeButton.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        removeButton.setBackground(new Color(255, 100, 100));
+        removeButton.setForeground(Color.WHITE);
+        removeButton.setFocusPainted(false);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 2));
+        buttons.setOpaque(false);
+        buttons.add(selectButton);
+        buttons.add(removeButton);
+
+        card.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        card.add(label, BorderLayout.CENTER);
+        card.add(buttons, BorderLayout.EAST);
+
+        row.setBackground(StrawberryPomodoro.LIGHT_PINK);
+        row.setBorder(BorderFactory.createEmptyBorder(5, 0, 5, 0));
+        row.add(card, BorderLayout.CENTER);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends String> list, String name,
+                                                  int index, boolean isSelected, boolean cellHasFocus) {
+        rendered++;
+        long progress = subjects.get(name);
+        int sessions = SubjectRegistry.sessionsOf(progress);
+        int minutes = SubjectRegistry.minutesOf(progress);
+        String text = name + ": " + sessions + " sessions, " + minutes + " min";
+        label.setText(text);
+        row.setToolTipText(text); // long names are cut off with "..."; JList asks the row for its tip
+        card.setBackground(name.equals(currentSubject.get()) ? StrawberryPomodoro.SUBJECT_SELECTED_BG : StrawberryPomodoro.SUBJECT_BG);
+        return row;
+    }
+
+    boolean isRemoveHit(JList<String> list, int index, Rectangle cell, Point p) {
+        getListCellRendererComponent(list, list.getModel().getElementAt(index), index, false, false);
+        row.setBounds(0, 0, cell.width, cell.height);
+        layoutTree(row); // validate() is a no-op outside a window
+        Rectangle r = SwingUtilities.convertRectangle(removeButton.getParent(), removeButton.getBounds(), row);
+        return r.contains(p.x - cell.x, p.y - cell.y);
+    }
+
+    private void layoutTree(Container c) {
+        c.doLayout();
+        for (Component child : c.getComponents()) {
+            if (child instanceof Container) layoutTree((Container) child);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * How CounterSync reaches other devices. A transport only moves counter entries;
+ * merging is idempotent, so entries may arrive late, twice or out of order.
+ */
+public interface SyncTransport extends Closeable {
+
+    // Sends this device's changed entries
+    void publish(List<CounterSync.Entry> delta) throws IOException;
+
+    // Hands over every entry received since the last poll
+    void poll(Consumer<CounterSync.Entry> sink) throws IOException;
+
+    // True once publish() has accumulated enough history to be worth rewriting
+    default boolean needsCompaction() {
+        return false;
+    }
+
+    // Replaces everything this device has published with its current entries
+    default void compact(List<CounterSync.Entry> current) throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,170 @@
+import javax.swing.JComponent;
+import java.awt.*;
+import java.awt.geom.Arc2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * The circular countdown: background ring, a progress arc for the remaining time,
+ * the MM:SS digits and the status line underneath.
+ * Digits and status are pre-rendered into small images once, and strokes, colors and
+ * the arc shape are allocated up front, so a frame only blits and draws one arc.
+ * Updates repaint just the ring's bounding box.
+ */
+public class TimerDisplay extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int RING_SIZE = 260;
+    private static final int STROKE_WIDTH = 16;
+    private static final int COLON = 10;
+
+    private final BasicStroke ringStroke = new BasicStroke(STROKE_WIDTH);
+    private final BasicStroke arcStroke = new BasicStroke(STROKE_WIDTH, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private final Color ringColor = new Color(255, 190, 190);
+    private final Color arcColor;
+    private final Color digitColor;
+    private final Color statusColor = new Color(255, 140, 140);
+    private final Font digitFont = new Font("SansSerif", Font.BOLD, 64);
+    private final Font statusFont = new Font("SansSerif", Font.PLAIN, 16);
+    private final Arc2D.Double arc = new Arc2D.Double(Arc2D.OPEN);
+    private final int[] shown = new int[5]; // glyph index per "MM:SS" position
+
+    // Pre-rendered at the scale of the screen they were built for; rebuilt if the window moves
+    private GraphicsConfiguration cacheConfig;
+    private double cacheScale = 1;
+    private final BufferedImage[] glyphs = new BufferedImage[11];
+    private final int[] glyphWidths = new int[11];
+    private int glyphHeight;
+    private BufferedImage statusImage;
+    private boolean statusDirty = true;
+    private int statusWidth;
+    private int statusHeight;
+
+    private String status = "";
+    private int seconds = -1;
+    private double remainingFraction = 1.0;
+
+    public TimerDisplay(Color accent) {
+        this.arcColor = accent;
+        this.digitColor = accent;
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setTime(0, 1.0);
+    }
+
+    public void setTime(int seconds, double remainingFraction) {
+        remainingFraction = Math.max(0, Math.min(1, remainingFraction));
+        if (seconds == this.seconds && remainingFraction == this.remainingFraction) return;
+        this.seconds = seconds;
+        this.remainingFraction = remainingFraction;
+
+        int min = Math.min(seconds / 60, 99);
+        int sec = seconds % 60;
+        shown[0] = min / 10;
+        shown[1] = min % 10;
+        shown[2] = COLON;
+        shown[3] = sec / 10;
+        shown[4] = sec % 10;
+        repaintRing();
+    }
+
+    public void setStatus(String status) {
+        if (status.equals(this.status)) return;
+        this.status = status;
+        statusDirty = true;
+        repaintRing();
+    }
+
+    private void repaintRing() {
+        int pad = STROKE_WIDTH;
+        repaint(ringX() - pad, ringY() - pad, RING_SIZE + 2 * pad, RING_SIZE + 2 * pad);
+    }
+
+    private int ringX() {
+        return (getWidth() - RING_SIZE) / 2;
+    }
+
+    private int ringY() {
+        return (getHeight() - RING_SIZE) / 2;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, getWidth(), getHeight());
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        int x = ringX();
+        int y = ringY();
+        g2.setStroke(ringStroke);
+        g2.setColor(ringColor);
+        g2.drawOval(x, y, RING_SIZE, RING_SIZE);
+
+        if (remainingFraction > 0) {
+            arc.setArc(x, y, RING_SIZE, RING_SIZE, 90, -360 * remainingFraction, Arc2D.OPEN);
+            g2.setStroke(arcStroke);
+            g2.setColor(arcColor);
+            g2.draw(arc);
+        }
+
+        GraphicsConfiguration gc = g2.getDeviceConfiguration();
+        if (gc != cacheConfig) {
+            buildGlyphs(gc);
+            statusDirty = true;
+        }
+        if (statusDirty) buildStatus();
+
+        // Digits and status are laid out as one block centred in the ring
+        int blockHeight = glyphHeight + 8 + statusHeight;
+        int top = y + (RING_SIZE - blockHeight) / 2;
+
+        int digitsWidth = 0;
+        for (int glyph : shown) digitsWidth += glyphWidths[glyph];
+        int gx = x + (RING_SIZE - digitsWidth) / 2;
+        for (int glyph : shown) {
+            g2.drawImage(glyphs[glyph], gx, top, glyphWidths[glyph], glyphHeight, null);
+            gx += glyphWidths[glyph];
+        }
+
+        if (statusWidth > 0) {
+            int sx = x + (RING_SIZE - statusWidth) / 2;
+            g2.drawImage(statusImage, sx, top + glyphHeight + 8, statusWidth, statusHeight, null);
+        }
+    }
+
+    private void buildGlyphs(GraphicsConfiguration gc) {
+        cacheConfig = gc;
+        cacheScale = gc.getDefaultTransform().getScaleX();
+        FontMetrics fm = getFontMetrics(digitFont);
+        glyphHeight = fm.getHeight();
+        for (int i = 0; i < glyphs.length; i++) {
+            String s = i == COLON ? ":" : String.valueOf((char) ('0' + i));
+            glyphWidths[i] = fm.stringWidth(s);
+            glyphs[i] = renderText(s, digitFont, digitColor, glyphWidths[i], glyphHeight, fm.getAscent(), cacheScale);
+        }
+    }
+
+    private void buildStatus() {
+        FontMetrics fm = getFontMetrics(statusFont);
+        statusWidth = fm.stringWidth(status);
+        statusHeight = fm.getHeight();
+        statusImage = statusWidth == 0 ? null
+            : renderText(status, statusFont, statusColor, statusWidth, statusHeight, fm.getAscent(), cacheScale);
+        statusDirty = false;
+    }
+
+    private static BufferedImage renderText(String text, Font font, Color color,
+                                            int width, int height, int ascent, double scale) {
+        BufferedImage img = new BufferedImage(
+            (int) Math.ceil(width * scale), (int) Math.ceil(height * scale), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.scale(scale, scale);
+        g.setFont(font);
+        g.setColor(color);
+        g.drawString(text, 0, ascent);
+        g.dispose();
+        return img;
+    }
+}
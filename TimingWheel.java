@@ -0,0 +1,183 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: one thread advances a ring of buckets every tick and only
+ * touches the timeouts that hash to the current bucket. Scheduling and cancelling are
+ * O(1) from any thread (they are queued and applied by the wheel thread), so pause,
+ * resume and reset on huge numbers of sessions stay cheap.
+ * Timeouts fire at most one tick late. Tasks run on the wheel thread unless an executor is given.
+ */
+public class TimingWheel implements SessionScheduler, AutoCloseable {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor taskExecutor;
+    private final Queue<Entry> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean closed = false;
+    private long tick = 0; // wheel thread only
+
+    public TimingWheel() {
+        this(10, TimeUnit.MILLISECONDS, 512, null);
+    }
+
+    public TimingWheel(long tickDuration, TimeUnit unit, int wheelSize, Executor taskExecutor) {
+        if (Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+        this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) wheel[i] = new Bucket();
+        this.mask = wheelSize - 1;
+        this.taskExecutor = taskExecutor;
+
+        worker = new Thread(this::run, "strawberry-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (closed) throw new IllegalStateException("TimingWheel is closed");
+        long deadline = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Entry e = new Entry(task, deadline);
+        scheduled.incrementAndGet();
+        pendingAdds.add(e);
+        return e;
+    }
+
+    // Timeouts that are scheduled and neither fired nor cancelled yet
+    public int pending() {
+        return scheduled.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (!closed) {
+            long deadline = startNanos + tickNanos * (tick + 1);
+            long sleep;
+            while ((sleep = deadline - System.nanoTime()) > 0 && !closed) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (closed) break;
+
+            processCancels();
+            transferAdds();
+            expire(wheel[(int) (tick & mask)], System.nanoTime() - startNanos);
+            tick++;
+        }
+    }
+
+    private void processCancels() {
+        Entry e;
+        while ((e = pendingCancels.poll()) != null) {
+            if (e.bucket != null) e.bucket.remove(e);
+        }
+    }
+
+    private void transferAdds() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Entry e = pendingAdds.poll();
+            if (e == null) return;
+            if (e.state.get() == CANCELLED) continue;
+
+            long dueTick = e.deadline / tickNanos;
+            e.remainingRounds = (dueTick - tick) / wheel.length;
+            long placeTick = Math.max(dueTick, tick); // already due -> current bucket
+            wheel[(int) (placeTick & mask)].add(e);
+        }
+    }
+
+    private void expire(Bucket bucket, long now) {
+        Entry e = bucket.head;
+        while (e != null) {
+            Entry next = e.next;
+            if (e.remainingRounds <= 0 && e.deadline <= now + tickNanos) {
+                bucket.remove(e);
+                if (e.state.compareAndSet(PENDING, EXPIRED)) {
+                    scheduled.decrementAndGet();
+                    fire(e.task);
+                }
+            } else {
+                e.remainingRounds--;
+            }
+            e = next;
+        }
+    }
+
+    private void fire(Runnable task) {
+        try {
+            if (taskExecutor != null) taskExecutor.execute(task);
+            else task.run();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    private final class Entry implements Timeout {
+        final Runnable task;
+        final long deadline; // nanos since startNanos
+        final AtomicInteger state = new AtomicInteger(PENDING);
+        long remainingRounds;
+        Bucket bucket;
+        Entry prev;
+        Entry next;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+            scheduled.decrementAndGet();
+            pendingCancels.add(this);
+            return true;
+        }
+    }
+
+    // Doubly linked so a cancelled entry unlinks in O(1); only touched by the wheel thread
+    private static final class Bucket {
+        Entry head;
+        Entry tail;
+
+        void add(Entry e) {
+            e.bucket = this;
+            if (head == null) {
+                head = tail = e;
+            } else {
+                tail.next = e;
+                e.prev = tail;
+                tail = e;
+            }
+        }
+
+        void remove(Entry e) {
+            if (e.bucket != this) return;
+            if (e.prev != null) e.prev.next = e.next;
+            else head = e.next;
+            if (e.next != null) e.next.prev = e.prev;
+            else tail = e.prev;
+            e.prev = e.next = null;
+            e.bucket = null;
+        }
+    }
+}
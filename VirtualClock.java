@@ -0,0 +1,94 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A clock that only moves when told to, and a scheduler that runs on it.
+ * advanceTo() jumps straight from one due task to the next, running each at its exact
+ * deadline, so nothing in between costs anything. Single-threaded: tasks run on the
+ * thread that advances the clock.
+ */
+public class VirtualClock implements SessionClock, SessionScheduler {
+
+    private final long startMillis;
+    private final ZoneId zone;
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private long nanos = 0;
+    private long sequence = 0; // keeps tasks due at the same instant in scheduling order
+    private long tasksRun = 0;
+
+    private static final class Task implements Comparable<Task>, Timeout {
+        final long deadline;
+        final long seq;
+        final Runnable runnable;
+        boolean cancelled = false;
+
+        Task(long deadline, long seq, Runnable runnable) {
+            this.deadline = deadline;
+            this.seq = seq;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled) return false;
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int c = Long.compare(deadline, o.deadline);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    public VirtualClock(Instant start, ZoneId zone) {
+        this.startMillis = start.toEpochMilli();
+        this.zone = zone;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public ZoneId zone() {
+        return zone;
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Task t = new Task(nanos + Math.max(0, unit.toNanos(delay)), sequence++, task);
+        queue.add(t);
+        return t;
+    }
+
+    // Runs every task due up to the target time, in deadline order, then stops there
+    public void advanceTo(long targetNanos) {
+        Task t;
+        while ((t = queue.peek()) != null && t.deadline <= targetNanos) {
+            queue.poll();
+            if (t.cancelled) continue;
+            nanos = Math.max(nanos, t.deadline);
+            tasksRun++;
+            t.runnable.run();
+        }
+        nanos = Math.max(nanos, targetNanos);
+    }
+
+    public void advance(long amount, TimeUnit unit) {
+        advanceTo(nanos + unit.toNanos(amount));
+    }
+
+    public long tasksRun() {
+        return tasksRun;
+    }
+}
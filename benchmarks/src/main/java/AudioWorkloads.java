@@ -0,0 +1,108 @@
+import strawberry.bench.Workload;
+import strawberry.bench.WorkloadBenchmark;
+
+import javax.sound.sampled.*;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Workloads for strawberry.bench.AudioBenchmarks and MusicBenchmarks.
+ */
+public final class AudioWorkloads {
+
+    private static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+    private static final int LIBRARY_FILES = 200;
+
+    private AudioWorkloads() {}
+
+    public static Workload streamOpen(int seconds) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("audio");
+        File wav = new File(dir, "tone.wav");
+        writeTone(wav, seconds);
+        return Workload.closing(() -> {
+            try (AudioInputStream in = AudioSystem.getAudioInputStream(wav)) {
+                return in.getFormat();
+            }
+        }, () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    public static Workload streamRead(int seconds) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("audio");
+        File wav = new File(dir, "tone.wav");
+        writeTone(wav, seconds);
+        byte[] chunk = new byte[64 * 1024];
+        return Workload.closing(() -> {
+            long total = 0;
+            try (AudioInputStream in = AudioSystem.getAudioInputStream(wav)) {
+                int n;
+                while ((n = in.read(chunk)) > 0) total += n;
+            }
+            return total;
+        }, () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    public static Workload clipOpen() throws Exception {
+        try {
+            AudioSystem.getClip().close();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            throw new IllegalStateException("no audio device, clipOpen can't run here", e);
+        }
+        File dir = WorkloadBenchmark.tempDir("audio");
+        File wav = new File(dir, "tone.wav");
+        writeTone(wav, 1);
+        return Workload.closing(() -> {
+            AudioCueCache cache = new AudioCueCache();
+            try {
+                return cache.preload(wav.getPath());
+            } finally {
+                cache.close();
+            }
+        }, () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    public static Workload libraryColdScan() throws IOException {
+        File dir = library();
+        File index = new File(dir, "index.txt");
+        File library = new File(dir, "library");
+        return Workload.closing(() -> {
+            index.delete();
+            MusicLibrary lib = new MusicLibrary(Collections.singletonList(library), index);
+            lib.open();
+            return lib;
+        }, () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    public static Workload libraryRescan() throws IOException {
+        File dir = library();
+        MusicLibrary warm = new MusicLibrary(Collections.singletonList(new File(dir, "library")), new File(dir, "index.txt"));
+        warm.open();
+        return Workload.closing(() -> {
+            warm.rescan();
+            return warm;
+        }, () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    private static File library() throws IOException {
+        File dir = WorkloadBenchmark.tempDir("audio");
+        File library = new File(dir, "library");
+        library.mkdirs();
+        for (int i = 0; i < LIBRARY_FILES; i++) writeTone(new File(library, "track-" + i + ".wav"), 1);
+        return dir;
+    }
+
+    static void writeTone(File file, int seconds) throws IOException {
+        int frames = (int) FORMAT.getSampleRate() * seconds;
+        byte[] pcm = new byte[frames * FORMAT.getFrameSize()];
+        for (int i = 0; i < frames; i++) {
+            short v = (short) (Math.sin(2 * Math.PI * 440 * i / FORMAT.getSampleRate()) * 8000);
+            int o = i * 4;
+            pcm[o] = pcm[o + 2] = (byte) v;
+            pcm[o + 1] = pcm[o + 3] = (byte) (v >> 8);
+        }
+        try (AudioInputStream in = new AudioInputStream(new ByteArrayInputStream(pcm), FORMAT, frames)) {
+            AudioSystem.write(in, AudioFileFormat.Type.WAVE, file);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import strawberry.bench.Workload;
+import strawberry.bench.WorkloadBenchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Workloads for strawberry.bench.HistoryBenchmarks and RegistryBenchmarks.
+ */
+public final class DataWorkloads {
+
+    private static final int HISTORY_DAYS = 6 * 365;
+    private static final int RECORDS_PER_DAY = 8;
+    private static final int SUBJECTS = 20;
+    private static final int RECORDS_PER_THREAD = 1_000_000;
+    private static final LocalDate FIRST = LocalDate.of(2019, 1, 1);
+    private static final LocalDate LAST = FIRST.plusDays(HISTORY_DAYS - 1);
+
+    private DataWorkloads() {}
+
+    public static Workload exportCsv() throws IOException {
+        return export(HistoryExporter.CSV);
+    }
+
+    public static Workload exportJson() throws IOException {
+        return export(HistoryExporter.JSON);
+    }
+
+    private static Workload export(String format) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("data");
+        HistoryStore history = history(dir);
+        HistoryExporter exporter = new HistoryExporter(history, format);
+        return Workload.closing(() -> exporter.write(HistoryExporter.FIRST_DAY, HistoryExporter.LAST_DAY, NULL_STREAM).bytes,
+            () -> close(history, dir));
+    }
+
+    public static Workload weeks52Rollup() throws IOException {
+        File dir = WorkloadBenchmark.tempDir("data");
+        HistoryStore history = history(dir);
+        RollupStore rollups = new RollupStore(new File(dir, "rollups.dat"));
+        rollups.open(history);
+        LocalDate from = LAST.minusWeeks(52);
+        return Workload.closing(() -> rollups.series(RollupStore.WEEK, from, LAST, RollupStore.ALL_SUBJECTS),
+            () -> close(history, dir));
+    }
+
+    public static Workload weeks52RawScan() throws IOException {
+        File dir = WorkloadBenchmark.tempDir("data");
+        HistoryStore history = history(dir);
+        LocalDate from = LAST.minusWeeks(52);
+        return Workload.closing(() -> history.minutesPerDay(from, LAST), () -> close(history, dir));
+    }
+
+    private static HistoryStore history(File dir) throws IOException {
+        HistoryStore history = new HistoryStore(new File(dir, "history.dat"), new File(dir, "subjects.txt"));
+        history.open();
+        for (int d = 0; d < HISTORY_DAYS; d++) {
+            for (int r = 0; r < RECORDS_PER_DAY; r++) {
+                history.record(FIRST.plusDays(d), "Subject " + ((d + r) % SUBJECTS), 25);
+            }
+        }
+        return history;
+    }
+
+    private static void close(HistoryStore history, File dir) throws IOException {
+        try {
+            history.close();
+        } finally {
+            WorkloadBenchmark.deleteTree(dir);
+        }
+    }
+
+    public static Workload registryRecord(int threads) {
+        return () -> {
+            SubjectRegistry registry = new SubjectRegistry();
+            for (int i = 0; i < SUBJECTS; i++) registry.add("Subject " + i);
+            concurrently(threads, t -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) registry.record((i + t) % SUBJECTS, 25);
+            });
+            return registry;
+        };
+    }
+
+    public static Workload syncMapRecord(int threads) {
+        return () -> {
+            Map<String, SubjectProgress> map = new HashMap<>();
+            String[] names = new String[SUBJECTS];
+            for (int i = 0; i < SUBJECTS; i++) {
+                names[i] = "Subject " + i;
+                map.put(names[i], new SubjectProgress());
+            }
+            concurrently(threads, t -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    synchronized (map) {
+                        SubjectProgress sp = map.get(names[(i + t) % SUBJECTS]);
+                        sp.sessions++;
+                        sp.minutes += 25;
+                    }
+                }
+            });
+            return map;
+        };
+    }
+
+    interface Worker {
+        void run(int thread);
+    }
+
+    private static void concurrently(int threads, Worker worker) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] all = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            all[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                worker.run(id);
+            });
+            all[t].start();
+        }
+        start.countDown();
+        for (Thread t : all) t.join();
+    }
+
+    private static final OutputStream NULL_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+}
@@ -0,0 +1,125 @@
+import strawberry.bench.SampleProfiler;
+import strawberry.bench.Workload;
+import strawberry.bench.WorkloadBenchmark;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Workloads for strawberry.bench.EdtBenchmarks.
+ */
+public final class EdtWorkloads {
+
+    private static final int SUBJECTS = 100;
+    private static final int MUSIC_SECONDS = 10;
+    private static EdtStallMonitor monitor;
+
+    private EdtWorkloads() {}
+
+    public static Workload modeSwitchSync() throws Exception {
+        return modeSwitch(false);
+    }
+
+    public static Workload modeSwitchOnExecutor() throws Exception {
+        return modeSwitch(true);
+    }
+
+    private static Workload modeSwitch(boolean onExecutor) throws Exception {
+        EdtStallMonitor monitor = monitor();
+        File dir = WorkloadBenchmark.tempDir("edt");
+        ProgressJournal journal = new ProgressJournal(new File(dir, "progress.txt"), new File(dir, "progress.journal"));
+        journal.recover();
+        HistoryStore history = new HistoryStore(new File(dir, "history.dat"), new File(dir, "subjects.txt"));
+        history.open();
+        RollupStore rollups = new RollupStore(new File(dir, "rollups.dat"));
+        rollups.open(history);
+        File music = new File(dir, "break.wav");
+        AudioWorkloads.writeTone(music, MUSIC_SECONDS);
+        IoExecutor io = new IoExecutor("bench-io");
+
+        ProgressJournal.State state = new ProgressJournal.State();
+        for (int i = 0; i < SUBJECTS; i++) state.subjects.put("Subject " + i, new SubjectProgress());
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        byte[] chunk = new byte[64 * 1024];
+
+        Runnable append = io(() -> journal.append(ProgressJournal.COMPLETE, 25, "Subject 1"));
+        Runnable record = io(() -> {
+            history.record(day, "Subject 1", 25);
+            rollups.catchUp(history);
+        });
+        Runnable saveRollups = io(rollups::save);
+        Runnable compact = io(() -> journal.compact(state));
+        // The old playMusicRandom's file open and full decode, without a line to play it on
+        Runnable decodeMusic = io(() -> {
+            try (AudioInputStream in = AudioSystem.getAudioInputStream(music)) {
+                while (in.read(chunk) > 0) {
+                    // decode only
+                }
+            } catch (UnsupportedAudioFileException e) {
+                throw new IOException(e);
+            }
+        });
+
+        return Workload.closing(() -> {
+            monitor.resetMax();
+            SwingUtilities.invokeAndWait(() -> {
+                if (onExecutor) {
+                    io.execute(append);
+                    io.execute(record);
+                    io.executeCoalesced("saveRollups", saveRollups);
+                    io.executeCoalesced("saveProgress", compact);
+                    io.execute(decodeMusic);
+                } else {
+                    append.run();
+                    record.run();
+                    saveRollups.run();
+                    compact.run();
+                    decodeMusic.run();
+                }
+            });
+            if (onExecutor) {
+                CountDownLatch done = new CountDownLatch(1);
+                io.submit(() -> null, ignored -> done.countDown());
+                done.await();
+            }
+            SampleProfiler.record("edt.stall", "ms", monitor.maxStallNanos() / 1e6);
+            return monitor;
+        }, () -> {
+            io.close();
+            journal.close();
+            history.close();
+            WorkloadBenchmark.deleteTree(dir);
+        });
+    }
+
+    interface IoWork {
+        void run() throws IOException;
+    }
+
+    private static Runnable io(IoWork work) {
+        return () -> {
+            try {
+                work.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // The app's monitor, with the per-event log turned off; one per JVM
+    private static synchronized EdtStallMonitor monitor() {
+        if (monitor == null) {
+            System.setProperty("strawberry.edtMonitor", "true");
+            System.setProperty("strawberry.edtMonitor.thresholdMs", "60000");
+            monitor = EdtStallMonitor.installIfEnabled();
+        }
+        return monitor;
+    }
+}
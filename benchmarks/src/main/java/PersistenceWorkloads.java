@@ -0,0 +1,129 @@
+import strawberry.bench.Workload;
+import strawberry.bench.WorkloadBenchmark;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Workloads for strawberry.bench.PersistenceBenchmarks, each in its own temporary folder.
+ */
+public final class PersistenceWorkloads {
+
+    private PersistenceWorkloads() {}
+
+    public static Workload legacySave(int subjects) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("persistence");
+        File legacy = new File(dir, "legacy.txt");
+        ProgressJournal.State state = state(subjects);
+        return Workload.closing(() -> {
+            legacySave(legacy, state);
+            return legacy;
+        }, () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    public static Workload legacyLoad(int subjects) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("persistence");
+        File legacy = new File(dir, "legacy.txt");
+        legacySave(legacy, state(subjects));
+        return Workload.closing(() -> legacyLoad(legacy), () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    public static Workload journalCompact(int subjects) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("persistence");
+        ProgressJournal journal = journal(dir);
+        ProgressJournal.State state = state(subjects);
+        journal.compact(state);
+        return Workload.closing(() -> {
+            journal.compact(state);
+            return journal;
+        }, () -> close(journal, dir));
+    }
+
+    public static Workload journalRecover(int subjects) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("persistence");
+        ProgressJournal journal = journal(dir);
+        journal.compact(state(subjects));
+        journal.close();
+        return Workload.closing(() -> {
+            ProgressJournal reader = journal(dir);
+            try {
+                return reader.recover();
+            } finally {
+                reader.close();
+            }
+        }, () -> WorkloadBenchmark.deleteTree(dir));
+    }
+
+    public static Workload journalAppend(int subjects) throws IOException {
+        File dir = WorkloadBenchmark.tempDir("persistence");
+        ProgressJournal journal = journal(dir);
+        journal.compact(state(subjects));
+        journal.recover();
+        return Workload.closing(() -> {
+            journal.append(ProgressJournal.COMPLETE, 25, "Subject 1");
+            return journal;
+        }, () -> close(journal, dir));
+    }
+
+    private static ProgressJournal journal(File dir) {
+        return new ProgressJournal(new File(dir, "progress.txt"), new File(dir, "journal.log"));
+    }
+
+    private static void close(ProgressJournal journal, File dir) throws IOException {
+        try {
+            journal.close();
+        } finally {
+            WorkloadBenchmark.deleteTree(dir);
+        }
+    }
+
+    private static ProgressJournal.State state(int subjects) {
+        ProgressJournal.State state = new ProgressJournal.State();
+        state.date = LocalDate.of(2024, 3, 1);
+        for (int i = 0; i < subjects; i++) {
+            SubjectProgress sp = new SubjectProgress();
+            sp.sessions = i % 12;
+            sp.minutes = sp.sessions * 25;
+            state.subjects.put("Subject " + i, sp);
+            state.completedSessions += sp.sessions;
+            state.totalStudyMinutes += sp.minutes;
+        }
+        return state;
+    }
+
+    // The original saveProgress/loadProgress file format
+    private static void legacySave(File file, ProgressJournal.State state) throws IOException {
+        try (PrintWriter pw = new PrintWriter(file)) {
+            pw.println(state.date);
+            pw.println(state.completedSessions);
+            pw.println(state.totalStudyMinutes);
+            pw.println(state.subjects.size());
+            for (String name : state.subjects.keySet()) {
+                SubjectProgress sp = state.subjects.get(name);
+                pw.println(name);
+                pw.println(sp.sessions);
+                pw.println(sp.minutes);
+            }
+        }
+    }
+
+    private static Map<String, SubjectProgress> legacyLoad(File file) throws IOException {
+        Map<String, SubjectProgress> subjects = new LinkedHashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            LocalDate.parse(br.readLine());
+            Integer.parseInt(br.readLine());
+            Integer.parseInt(br.readLine());
+            int n = Integer.parseInt(br.readLine());
+            for (int i = 0; i < n; i++) {
+                String name = br.readLine();
+                SubjectProgress sp = new SubjectProgress();
+                sp.sessions = Integer.parseInt(br.readLine());
+                sp.minutes = Integer.parseInt(br.readLine());
+                subjects.put(name, sp);
+            }
+        }
+        return subjects;
+    }
+}
@@ -0,0 +1,140 @@
+import strawberry.bench.Workload;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Workloads for strawberry.bench.RenderBenchmarks.
+ */
+public final class RenderWorkloads {
+
+    private static final int WIDTH = 380;
+    private static final int HEIGHT = 420;
+
+    private RenderWorkloads() {}
+
+    public static Workload legacyRebuild(int n) {
+        SubjectRegistry subjects = subjects(n);
+        String current = "Subject " + (n / 2);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        JPanel legacyPanel = new JPanel();
+        legacyPanel.setLayout(new BoxLayout(legacyPanel, BoxLayout.Y_AXIS));
+        JScrollPane legacyScroll = new JScrollPane(legacyPanel);
+        legacyScroll.setSize(WIDTH, HEIGHT);
+        return () -> {
+            legacyRebuild(legacyPanel, subjects, current);
+            legacyScroll.validate();
+            paint(legacyScroll, image);
+            return legacyPanel;
+        };
+    }
+
+    public static Workload listSetAllPaint(int n) {
+        SubjectRegistry subjects = subjects(n);
+        SubjectListModel model = new SubjectListModel();
+        JScrollPane scroll = list(model, subjects, "Subject " + (n / 2));
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        return () -> {
+            model.setAll(subjects.names());
+            scroll.validate();
+            paint(scroll, image);
+            return scroll;
+        };
+    }
+
+    public static Workload listChangedPaint(int n) {
+        SubjectRegistry subjects = subjects(n);
+        String current = "Subject " + (n / 2);
+        SubjectListModel model = new SubjectListModel();
+        JScrollPane scroll = list(model, subjects, current);
+        model.setAll(subjects.names());
+        scroll.validate();
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        return () -> {
+            subjects.record(current, 25);
+            model.changed(current);
+            paint(scroll, image);
+            return scroll;
+        };
+    }
+
+    private static SubjectRegistry subjects(int n) {
+        SubjectRegistry subjects = new SubjectRegistry();
+        for (int i = 0; i < n; i++) {
+            subjects.add("Subject " + i);
+            for (int s = 0; s < i % 5; s++) subjects.record("Subject " + i, 25);
+        }
+        return subjects;
+    }
+
+    private static JScrollPane list(SubjectListModel model, SubjectRegistry subjects, String current) {
+        SubjectRowRenderer renderer = new SubjectRowRenderer(subjects, () -> current);
+        JList<String> list = new JList<>(model);
+        list.setCellRenderer(renderer);
+        list.setFixedCellHeight(SubjectRowRenderer.ROW_HEIGHT);
+        list.setFixedCellWidth(350);
+        list.setBackground(StrawberryPomodoro.LIGHT_PINK);
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setSize(WIDTH, HEIGHT);
+        return scroll;
+    }
+
+    static void paint(JComponent c, BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        try {
+            c.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // The original updateSubjectsPanel, minus the action listeners
+    private static void legacyRebuild(JPanel subjectsPanel, SubjectRegistry subjects, String currentSubject) {
+        subjectsPanel.removeAll();
+        subjectsPanel.add(new JButton("+ Add Subject"));
+        subjectsPanel.add(Box.createVerticalStrut(10));
+
+        subjects.forEach((name, sessions, minutes) -> {
+            JTextArea label = new JTextArea(name + ": " + sessions + " sessions, " + minutes + " min");
+            label.setFont(new Font("SansSerif", Font.PLAIN, 14));
+            label.setForeground(StrawberryPomodoro.TEXT_DARK);
+            label.setEditable(false);
+            label.setLineWrap(true);
+            label.setWrapStyleWord(true);
+            label.setOpaque(false);
+
+            JButton selectButton = new JButton("Select");
+            selectButton.setFont(new Font("SansSerif", Font.PLAIN, 12));
+            selectButton.setBackground(StrawberryPomodoro.BUTTON_GRAY);
+            selectButton.setForeground(StrawberryPomodoro.TEXT_DARK);
+            selectButton.setFocusPainted(false);
+
+            JButton removeButton = new JButton("Remove");
+            removeButton.setFont(new Font("SansSerif", Font.PLAIN, 12));
+            removeButton.setBackground(new Color(255, 100, 100));
+            removeButton.setForeground(Color.WHITE);
+            removeButton.setFocusPainted(false);
+
+            JPanel panel = new JPanel();
+            panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+            panel.setBackground(name.equals(currentSubject)
+                ? StrawberryPomodoro.SUBJECT_SELECTED_BG : StrawberryPomodoro.SUBJECT_BG);
+            panel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+
+            JPanel topRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+            topRow.setOpaque(false);
+            topRow.add(label);
+            topRow.add(selectButton);
+            topRow.add(removeButton);
+
+            panel.add(topRow);
+            panel.setMaximumSize(new Dimension(350, 80));
+
+            subjectsPanel.add(panel);
+            subjectsPanel.add(Box.createVerticalStrut(10));
+        });
+
+        subjectsPanel.revalidate();
+    }
+}
@@ -0,0 +1,65 @@
+import strawberry.bench.SampleProfiler;
+import strawberry.bench.Workload;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workloads for strawberry.bench.SchedulerBenchmarks and VirtualDayBenchmarks.
+ */
+public final class SchedulerWorkloads {
+
+    private static final int LATENESS_TIMEOUTS = 100_000;
+
+    private SchedulerWorkloads() {}
+
+    public static Workload wheelScheduleCancel() {
+        TimingWheel wheel = new TimingWheel();
+        Runnable nothing = () -> {};
+        return Workload.closing(() -> {
+            SessionScheduler.Timeout t = wheel.schedule(nothing, 25, TimeUnit.MINUTES);
+            t.cancel();
+            return t;
+        }, wheel::close);
+    }
+
+    // Fire time minus deadline of timeouts due within 200 ms, recorded in milliseconds
+    public static Workload lateness() {
+        TimingWheel wheel = new TimingWheel();
+        return Workload.closing(() -> {
+            long[] late = new long[LATENESS_TIMEOUTS];
+            CountDownLatch done = new CountDownLatch(LATENESS_TIMEOUTS);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < LATENESS_TIMEOUTS; i++) {
+                int slot = i;
+                long delay = random.nextLong(TimeUnit.MILLISECONDS.toNanos(200));
+                long deadline = System.nanoTime() + delay;
+                wheel.schedule(() -> {
+                    late[slot] = System.nanoTime() - deadline;
+                    done.countDown();
+                }, delay, TimeUnit.NANOSECONDS);
+            }
+            done.await();
+            for (long l : late) SampleProfiler.record("lateness", "ms", l / 1e6);
+            return late;
+        }, wheel::close);
+    }
+
+    public static Workload virtualDay(int sessions) {
+        return () -> {
+            VirtualClock clock = new VirtualClock(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+            for (int i = 0; i < sessions; i++) {
+                PomodoroSession session = new PomodoroSession(clock, clock,
+                    PomodoroSession.POMODORO_MIN, PomodoroSession.SHORT_BREAK_MIN, PomodoroSession.LONG_BREAK_MIN);
+                session.addSubject("Subject");
+                clock.advance(i, TimeUnit.SECONDS); // stagger the deadlines
+                session.toggle();
+            }
+            clock.advance(1, TimeUnit.DAYS);
+            return clock.tasksRun();
+        };
+    }
+}
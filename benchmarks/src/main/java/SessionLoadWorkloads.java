@@ -0,0 +1,85 @@
+import strawberry.bench.SampleProfiler;
+import strawberry.bench.Workload;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workloads for strawberry.bench.SessionLoadBenchmarks.
+ */
+public final class SessionLoadWorkloads {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final long POMODORO_NANOS = TimeUnit.MINUTES.toNanos(PomodoroSession.POMODORO_MIN);
+
+    private SessionLoadWorkloads() {}
+
+    public static Workload activeDay(int n) {
+        return () -> {
+            VirtualClock clock = new VirtualClock(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+            long heapBefore = usedHeap();
+            PomodoroSession[] sessions = start(n, clock, clock, clock);
+            SampleProfiler.record("heap", "B/session", (double) (usedHeap() - heapBefore) / n);
+
+            long cpuBefore = THREADS.getCurrentThreadCpuTime();
+            clock.advance(1, TimeUnit.DAYS);
+            long cpu = THREADS.getCurrentThreadCpuTime() - cpuBefore;
+            SampleProfiler.record("cpu", "us/session-day", cpu / 1e3 / n);
+            return sessions;
+        };
+    }
+
+    public static Workload idleSecond(int n) {
+        TimingWheel wheel = new TimingWheel();
+        long wheelThread = wheelThreadId();
+        return Workload.closing(() -> {
+            long heapBefore = usedHeap();
+            PomodoroSession[] sessions = start(n, wheel, null, null);
+            SampleProfiler.record("heap", "B/session", (double) (usedHeap() - heapBefore) / n);
+
+            Thread.sleep(50); // let the wheel take in the new timeouts first
+            long cpuBefore = THREADS.getThreadCpuTime(wheelThread);
+            long start = System.nanoTime();
+            Thread.sleep(1000);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long cpu = THREADS.getThreadCpuTime(wheelThread) - cpuBefore;
+            SampleProfiler.record("cpu", "ns/session-s", cpu / seconds / n);
+
+            for (PomodoroSession s : sessions) s.setMode(PomodoroSession.POMODORO); // stop, cancelling the wakeup
+            return sessions;
+        }, wheel::close);
+    }
+
+    // n started sessions with their deadlines spread over one pomodoro
+    private static PomodoroSession[] start(int n, SessionScheduler scheduler, SessionClock clock, VirtualClock stagger) {
+        PomodoroSession[] sessions = new PomodoroSession[n];
+        for (int i = 0; i < n; i++) {
+            sessions[i] = clock == null ? new PomodoroSession(scheduler)
+                : new PomodoroSession(scheduler, clock,
+                    PomodoroSession.POMODORO_MIN, PomodoroSession.SHORT_BREAK_MIN, PomodoroSession.LONG_BREAK_MIN);
+            sessions[i].addSubject("Subject");
+            if (stagger != null) stagger.advance(POMODORO_NANOS / n, TimeUnit.NANOSECONDS);
+            sessions[i].toggle();
+        }
+        return sessions;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        System.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long wheelThreadId() {
+        for (ThreadInfo t : THREADS.dumpAllThreads(false, false)) {
+            if (t.getThreadName().equals("strawberry-wheel")) return t.getThreadId();
+        }
+        throw new IllegalStateException("no strawberry-wheel thread");
+    }
+}
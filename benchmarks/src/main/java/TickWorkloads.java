@@ -0,0 +1,137 @@
+import strawberry.bench.SampleProfiler;
+import strawberry.bench.Workload;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Workloads for strawberry.bench.TickBenchmarks.
+ */
+public final class TickWorkloads {
+
+    private static final int WIDTH = 500;
+    private static final int HEIGHT = 340;
+    private static final Color PINK = new Color(255, 120, 120);
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private TickWorkloads() {}
+
+    public static Workload formatLabel() {
+        JLabel label = new JLabel("25:00");
+        int[] second = {0};
+        return () -> {
+            int sec = 1500 - (second[0]++ % 1500);
+            label.setText(String.format("%02d:%02d", sec / 60, sec % 60));
+            return label;
+        };
+    }
+
+    public static Workload timerDisplaySetTime() {
+        TimerDisplay display = new TimerDisplay(new Color(255, 90, 95));
+        int[] second = {0};
+        return () -> {
+            int sec = 1500 - (second[0]++ % 1500);
+            display.setTime(sec, sec / 1500.0);
+            return display;
+        };
+    }
+
+    // The app's refresh timer action: tick lateness, session.poll() then refreshDisplay()
+    public static Workload tick() {
+        PomodoroSession session = new PomodoroSession(null);
+        session.toggle();
+        TimerDisplay display = new TimerDisplay(new Color(255, 90, 95));
+        return () -> {
+            PerfEvents.tick(0, session.remainingSeconds());
+            session.poll();
+            double fraction = (double) session.remainingNanos() / session.durationNanos();
+            display.setTime(session.remainingSeconds(), fraction);
+            return display;
+        };
+    }
+
+    // One frame of the original timer: new text in the time JLabel, layout, paint of the ring panel
+    public static Workload legacyFrame() {
+        JLabel timeLabel = new JLabel("25:00");
+        JPanel timerPanel = legacyTimerPanel(timeLabel);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        int[] second = {0};
+        return frame(() -> {
+            int sec = 1500 - (second[0]++ % 1500);
+            timeLabel.setText(String.format("%02d:%02d", sec / 60, sec % 60));
+            timerPanel.validate();
+            RenderWorkloads.paint(timerPanel, image);
+            return image;
+        });
+    }
+
+    // One frame of TimerDisplay with a new second and arc position
+    public static Workload timerDisplayFrame() {
+        TimerDisplay display = new TimerDisplay(PINK);
+        display.setStatus("Focus Session");
+        display.setSize(WIDTH, HEIGHT);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        int[] second = {0};
+        return frame(() -> {
+            int sec = 1500 - (second[0]++ % 1500);
+            display.setTime(sec, sec / 1500.0);
+            RenderWorkloads.paint(display, image);
+            return image;
+        });
+    }
+
+    // Records the bytes each frame allocates on this thread as "alloc"
+    private static Workload frame(Workload paint) {
+        long thread = Thread.currentThread().getId();
+        return () -> {
+            long before = THREADS.getThreadAllocatedBytes(thread);
+            Object result = paint.run();
+            SampleProfiler.record("alloc", "B", THREADS.getThreadAllocatedBytes(thread) - before);
+            return result;
+        };
+    }
+
+    // The ring panel and labels StrawberryPomodoro built before TimerDisplay
+    private static JPanel legacyTimerPanel(JLabel timeLabel) {
+        JPanel timerPanel = new JPanel(new GridBagLayout()) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                Graphics2D g2 = (Graphics2D) g;
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                int size = 260;
+                int x = (getWidth() - size) / 2;
+                int y = (getHeight() - size) / 2;
+                g2.setStroke(new BasicStroke(16));
+                g2.setColor(new Color(255, 190, 190));
+                g2.drawOval(x, y, size, size);
+            }
+        };
+        timerPanel.setSize(WIDTH, HEIGHT);
+        timerPanel.setBackground(Color.WHITE);
+
+        JPanel timerText = new JPanel();
+        timerText.setLayout(new BoxLayout(timerText, BoxLayout.Y_AXIS));
+        timerText.setOpaque(false);
+
+        timeLabel.setFont(new Font("SansSerif", Font.BOLD, 64));
+        timeLabel.setForeground(PINK);
+        timeLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        JLabel statusLabel = new JLabel("Focus Session");
+        statusLabel.setFont(new Font("SansSerif", Font.PLAIN, 16));
+        statusLabel.setForeground(new Color(255, 140, 140));
+        statusLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        timerText.add(timeLabel);
+        timerText.add(Box.createVerticalStrut(8));
+        timerText.add(statusLabel);
+        timerPanel.add(timerText);
+        return timerPanel;
+    }
+}
@@ -0,0 +1,29 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Audio open latency on generated WAV fixtures (44.1 kHz 16-bit stereo tones), so the
+ * numbers don't depend on whatever is in ~/Music. streamRead decodes the whole file.
+ */
+public class AudioBenchmarks extends WorkloadBenchmark {
+
+    @Param({"1", "10", "60"})
+    public int seconds;
+
+    @Override
+    protected int param() {
+        return seconds;
+    }
+
+    @Benchmark
+    public Object streamOpen() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object streamRead() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,177 @@
+package strawberry.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (-rf json):
+ *
+ *   java -cp target/benchmarks.jar strawberry.bench.Compare baseline.json results.json [--threshold 0.10] [--strict]
+ *
+ * Every primary score, and every p50/p99/max from SampleProfiler, is matched by benchmark
+ * and params; anything worse than the baseline by more than the threshold is flagged, and
+ * --strict also makes the run exit with status 1 then. Throughput is better higher, the rest lower.
+ */
+public final class Compare {
+
+    private Compare() {}
+
+    private static final class Score {
+        final double value;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Score(double value, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: Compare BASELINE.json RESULTS.json [--threshold 0.10] [--strict]");
+            System.exit(2);
+        }
+        double threshold = 0.10;
+        boolean strict = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--strict")) strict = true;
+            else if (args[i].equals("--threshold")) threshold = Double.parseDouble(args[++i]);
+        }
+        Map<String, Score> baseline = scores(args[0]);
+        Map<String, Score> results = scores(args[1]);
+
+        System.out.println("== " + args[1] + " compared with " + args[0] + " (threshold " + Math.round(threshold * 100) + "%)");
+        int regressions = 0;
+        for (Map.Entry<String, Score> e : results.entrySet()) {
+            Score now = e.getValue();
+            Score before = baseline.get(e.getKey());
+            if (before == null || before.value == 0 || !before.unit.equals(now.unit)) {
+                System.out.printf("  %-70s %12.3f %-8s new%n", e.getKey(), now.value, now.unit);
+                continue;
+            }
+            double change = (now.value - before.value) / before.value;
+            boolean worse = now.higherIsBetter ? change < -threshold : change > threshold;
+            if (worse) regressions++;
+            System.out.printf("  %-70s %12.3f %-8s %+7.1f%% %s%n", e.getKey(), now.value, now.unit, change * 100,
+                worse ? "REGRESSION" : "");
+        }
+        System.out.println(regressions + " regression(s)");
+        if (strict && regressions > 0) System.exit(1);
+    }
+
+    // "benchmark{params}" or "benchmark{params}:metric" -> score
+    @SuppressWarnings("unchecked")
+    private static Map<String, Score> scores(String file) throws IOException {
+        String json = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (Object o : (List<Object>) new Parser(json).value()) {
+            Map<String, Object> run = (Map<String, Object>) o;
+            Object params = run.get("params");
+            String key = run.get("benchmark") + (params == null ? "" : new TreeMap<>((Map<String, Object>) params).toString());
+            Map<String, Object> primary = (Map<String, Object>) run.get("primaryMetric");
+            scores.put(key, new Score(((Number) primary.get("score")).doubleValue(), (String) primary.get("scoreUnit"),
+                "thrpt".equals(run.get("mode"))));
+            Object secondary = run.get("secondaryMetrics");
+            if (secondary == null) continue;
+            for (Map.Entry<String, Object> m : ((Map<String, Object>) secondary).entrySet()) {
+                String label = m.getKey();
+                if (!label.endsWith(".p50") && !label.endsWith(".p99") && !label.endsWith(".max")) continue;
+                Map<String, Object> metric = (Map<String, Object>) m.getValue();
+                Object score = metric.get("score");
+                if (!(score instanceof Number)) continue;
+                scores.put(key + ":" + label, new Score(((Number) score).doubleValue(), (String) metric.get("scoreUnit"), false));
+            }
+        }
+        return scores;
+    }
+
+    // Just enough JSON for JMH's result files: objects, arrays, strings, numbers, true/false/null
+    private static final class Parser {
+        private final String s;
+        private int i;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            skip();
+            char c = s.charAt(i);
+            if (c == '{') return object();
+            if (c == '[') return array();
+            if (c == '"') return string();
+            if (s.startsWith("true", i)) { i += 4; return Boolean.TRUE; }
+            if (s.startsWith("false", i)) { i += 5; return Boolean.FALSE; }
+            if (s.startsWith("null", i)) { i += 4; return null; }
+            int start = i;
+            while (i < s.length() && "+-.eE0123456789".indexOf(s.charAt(i)) >= 0) i++;
+            String number = s.substring(start, i);
+            // JMH writes "NaN" as a string, so anything else here is a real number
+            return Double.parseDouble(number);
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            i++;
+            skip();
+            if (s.charAt(i) == '}') { i++; return map; }
+            while (true) {
+                skip();
+                String key = string();
+                skip();
+                i++; // ':'
+                map.put(key, value());
+                skip();
+                if (s.charAt(i++) == '}') return map;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            i++;
+            skip();
+            if (s.charAt(i) == ']') { i++; return list; }
+            while (true) {
+                list.add(value());
+                skip();
+                if (s.charAt(i++) == ']') return list;
+            }
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            i++;
+            while (true) {
+                char c = s.charAt(i++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = s.charAt(i++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u': sb.append((char) Integer.parseInt(s.substring(i, i + 4), 16)); i += 4; break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        private void skip() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dispatch thread during the switch out of a finished pomodoro: append to the journal,
+ * record history and catch up the rollups, save the rollups, compact the progress snapshot
+ * and decode a 10 s break track. modeSwitchSync does all of that inside the EDT event, as
+ * the app used to; modeSwitchOnExecutor hands it to an IoExecutor the way the app does now.
+ * EdtStallMonitor times every EDT event, and the longest one per switch is reported as
+ * edt.stall.p50/p99/max in ms. The score is the time until all the I/O is done.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EdtBenchmarks extends WorkloadBenchmark {
+
+    @Benchmark
+    public Object modeSwitchSync() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object modeSwitchOnExecutor() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,39 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Six years of history (17,520 records): a full CSV and JSON export, and a 52-week series
+ * from the rollups against the same series from a raw history scan.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HistoryBenchmarks extends WorkloadBenchmark {
+
+    @Override
+    protected String workloads() {
+        return "DataWorkloads";
+    }
+
+    @Benchmark
+    public Object exportCsv() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object exportJson() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object weeks52Rollup() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object weeks52RawScan() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,18 @@
+package strawberry.bench;
+
+/**
+ * java -jar target/benchmarks.jar [JMH options]: the JMH runner with SampleProfiler added,
+ * so self-measured latencies show up next to the scores.
+ */
+public final class Main {
+
+    private Main() {}
+
+    public static void main(String[] args) throws Exception {
+        String[] all = new String[args.length + 2];
+        all[0] = "-prof";
+        all[1] = SampleProfiler.class.getName();
+        System.arraycopy(args, 0, all, 2, args.length);
+        org.openjdk.jmh.Main.main(all);
+    }
+}
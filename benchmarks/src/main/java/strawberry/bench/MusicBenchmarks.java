@@ -0,0 +1,31 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Preloading a one-second cue into a Clip, and a cold scan of a 200-file music folder
+ * against the incremental rescan of the same, unchanged folder. Opening a Clip needs
+ * a mixer; without one (CI, containers) clipOpen fails its setup and JMH moves on.
+ */
+public class MusicBenchmarks extends WorkloadBenchmark {
+
+    @Override
+    protected String workloads() {
+        return "AudioWorkloads";
+    }
+
+    @Benchmark
+    public Object clipOpen() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object libraryColdScan() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object libraryRescan() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,45 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Saving and loading progress with 10 to 10,000 subjects. "legacy" is the original
+ * rewrite-everything text file; the journal rows are what the app does now: compact
+ * (a full snapshot, fsynced), recover (startup load) and append (one completed session).
+ */
+public class PersistenceBenchmarks extends WorkloadBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int subjects;
+
+    @Override
+    protected int param() {
+        return subjects;
+    }
+
+    @Benchmark
+    public Object legacySave() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object legacyLoad() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object journalCompact() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object journalRecover() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object journalAppend() throws Exception {
+        return work.run();
+    }
+}
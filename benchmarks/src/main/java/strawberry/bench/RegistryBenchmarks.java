@@ -0,0 +1,39 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording completed sessions from 1 to 8 threads, a million per thread per invocation,
+ * into the SubjectRegistry and into a synchronized HashMap of SubjectProgress.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class RegistryBenchmarks extends WorkloadBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Override
+    protected int param() {
+        return threads;
+    }
+
+    @Override
+    protected String workloads() {
+        return "DataWorkloads";
+    }
+
+    @Benchmark
+    public Object registryRecord() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object syncMapRecord() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,36 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Subject list cost with 10 to 10,000 subjects, headless: painting goes into an image the
+ * size of the subjects area. legacyRebuild is the original updateSubjectsPanel (a panel
+ * of components per subject, rebuilt and laid out on every change); the list rows are the
+ * JList with SubjectListModel and SubjectRowRenderer the app uses now.
+ */
+public class RenderBenchmarks extends WorkloadBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int subjects;
+
+    @Override
+    protected int param() {
+        return subjects;
+    }
+
+    @Benchmark
+    public Object legacyRebuild() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object listSetAllPaint() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object listChangedPaint() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,79 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports values a workload measures itself, such as how late a timeout fired, as
+ * p50/p99/max secondary results of each iteration. Main always adds it; benchmarks that
+ * record nothing get no extra rows.
+ */
+public final class SampleProfiler implements InternalProfiler {
+
+    private static final class Series {
+        final String unit;
+        double[] values = new double[1024];
+        int size;
+
+        Series(String unit) {
+            this.unit = unit;
+        }
+
+        void add(double v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        double percentile(double p) {
+            return values[Math.min(size - 1, (int) (size * p))];
+        }
+    }
+
+    private static final Map<String, Series> SERIES = new LinkedHashMap<>();
+
+    public static synchronized void record(String metric, String unit, double value) {
+        SERIES.computeIfAbsent(metric, k -> new Series(unit)).add(value);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Percentiles of values recorded by the workload";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        synchronized (SampleProfiler.class) {
+            SERIES.clear();
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        List<Result> results = new ArrayList<>();
+        synchronized (SampleProfiler.class) {
+            for (Map.Entry<String, Series> e : SERIES.entrySet()) {
+                Series s = e.getValue();
+                if (s.size == 0) continue;
+                Arrays.sort(s.values, 0, s.size);
+                results.add(new ScalarResult(e.getKey() + ".p50", s.percentile(0.50), s.unit, AggregationPolicy.AVG));
+                results.add(new ScalarResult(e.getKey() + ".p99", s.percentile(0.99), s.unit, AggregationPolicy.AVG));
+                results.add(new ScalarResult(e.getKey() + ".max", s.values[s.size - 1], s.unit, AggregationPolicy.MAX));
+            }
+            SERIES.clear();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,28 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimingWheel schedule/cancel cost, and how late its timeouts fire: lateness schedules
+ * 100,000 timeouts due within 200 ms and reports fire time minus deadline through
+ * SampleProfiler (lateness.p50/p99/max, in ms), so p99 rests on a thousand samples.
+ */
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchedulerBenchmarks extends WorkloadBenchmark {
+
+    @Benchmark
+    public Object wheelScheduleCancel() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public Object lateness() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,39 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for hosting many timers in one JVM: N started sessions, one per user.
+ * activeDay runs them on a VirtualClock through a whole day of auto-cycling and reports
+ * heap per session (B/session) and the CPU the day's transitions took (us/session-day).
+ * idleSecond arms them on a real TimingWheel and reports heap per session and the wheel
+ * thread's CPU over one second of waiting (ns/session-s), which is mostly the wheel's own
+ * 10 ms tick and so shrinks per session as N grows. Both come through SampleProfiler
+ * as heap.* and cpu.*; heap is measured between full GCs, so run with the default collector.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SessionLoadBenchmarks extends WorkloadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    @Override
+    protected int param() {
+        return sessions;
+    }
+
+    @Benchmark
+    public Object activeDay() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object idleSecond() throws Exception {
+        return work.run();
+    }
+}
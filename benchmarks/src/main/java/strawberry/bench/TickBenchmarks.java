@@ -0,0 +1,53 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The once-per-refresh timer path: turning the remaining time into what the window shows.
+ * formatLabel is the original String.format + JLabel.setText; TimerDisplay is what the
+ * app uses now. tick is the whole refresh timer action: poll a running session that has
+ * no scheduler, like the app's, then update the display. Components are not on screen,
+ * so this is the update cost without painting.
+ * The frame benchmarks paint off-screen as well: legacyFrame is the old ring panel with
+ * the time and status JLabels, timerDisplayFrame is TimerDisplay, both 500x340 with a new
+ * second every frame; TimerDisplay also strokes the progress arc, which the old panel never
+ * had. Frame time comes as sampled percentiles, allocation per frame as alloc.p50/p99/max
+ * in bytes (from ThreadMXBean, like -prof gc).
+ */
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TickBenchmarks extends WorkloadBenchmark {
+
+    @Benchmark
+    public Object formatLabel() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object timerDisplaySetTime() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    public Object tick() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object legacyFrame() throws Exception {
+        return work.run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object timerDisplayFrame() throws Exception {
+        return work.run();
+    }
+}
@@ -0,0 +1,32 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many auto-cycling sessions driven through a simulated day on a VirtualClock.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualDayBenchmarks extends WorkloadBenchmark {
+
+    @Param({"100", "1000"})
+    public int sessions;
+
+    @Override
+    protected int param() {
+        return sessions;
+    }
+
+    @Override
+    protected String workloads() {
+        return "SchedulerWorkloads";
+    }
+
+    @Benchmark
+    public Object virtualDay() throws Exception {
+        return work.run();
+    }
+}
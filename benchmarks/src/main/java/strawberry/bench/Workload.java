@@ -0,0 +1,30 @@
+package strawberry.bench;
+
+/**
+ * One measured operation, set up by a default-package workload class that can see the app's
+ * classes, plus whatever has to be released once the trial is over.
+ */
+@FunctionalInterface
+public interface Workload extends AutoCloseable {
+
+    Object run() throws Exception;
+
+    @Override
+    default void close() throws Exception {
+    }
+
+    // work, with cleanup run on close
+    static Workload closing(Workload work, AutoCloseable cleanup) {
+        return new Workload() {
+            @Override
+            public Object run() throws Exception {
+                return work.run();
+            }
+
+            @Override
+            public void close() throws Exception {
+                cleanup.close();
+            }
+        };
+    }
+}
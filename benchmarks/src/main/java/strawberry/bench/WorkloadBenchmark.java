@@ -0,0 +1,86 @@
+package strawberry.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of the benchmark classes. JMH needs benchmarks in a named package, and a named package
+ * can't see the app's default-package classes, so each @Benchmark method only runs a Workload
+ * built by a default-package class: XBenchmarks.foo() runs XWorkloads.foo(param), or foo()
+ * when it takes no parameter, set up once per trial. A class can name another workloads class. Defaults: average time in microseconds,
+ * two forks of five 1 s warmup and five 1 s measured iterations, headless AWT.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class WorkloadBenchmark {
+
+    protected Workload work;
+
+    // The @Param the workload is built with, if the benchmark class has one
+    protected int param() {
+        return 0;
+    }
+
+    // Default-package class with the workload factories; null for the XBenchmarks -> XWorkloads rule
+    protected String workloads() {
+        return null;
+    }
+
+    @Setup(Level.Trial)
+    public void open(BenchmarkParams params) throws Exception {
+        work = open(params.getBenchmark(), workloads(), param());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Exception {
+        if (work != null) work.close();
+    }
+
+    static Workload open(String benchmark, String workloads, int param) throws Exception {
+        int dot = benchmark.lastIndexOf('.');
+        String method = benchmark.substring(dot + 1);
+        if (workloads == null) {
+            workloads = benchmark.substring(benchmark.lastIndexOf('.', dot - 1) + 1, dot).replace("Benchmarks", "Workloads");
+        }
+        Class<?> suite = Class.forName(workloads);
+        try {
+            Method m;
+            Object[] args;
+            try {
+                m = suite.getMethod(method, int.class);
+                args = new Object[]{param};
+            } catch (NoSuchMethodException e) {
+                m = suite.getMethod(method);
+                args = new Object[0];
+            }
+            return (Workload) m.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    public static File tempDir(String prefix) throws IOException {
+        File dir = Files.createTempDirectory("strawberry-" + prefix).toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    public static void deleteTree(File f) {
+        File[] children = f.listFiles();
+        if (children != null) for (File c : children) deleteTree(c);
+        f.delete();
+    }
+}
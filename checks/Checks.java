@@ -0,0 +1,50 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Self-checking programs for behaviour that is hard to see in the window: timer stalls,
+ * crash recovery and the like. Built with the same javac call as the app:
+ *
+ *   javac -encoding UTF-8 -d out *.java checks/*.java
+ *   java -cp out Checks [name...]
+ *
+ * Every check prints what it measured and throws on a failed expectation; the run exits
+ * with status 1 if any check failed.
+ */
+public final class Checks {
+
+    interface Check {
+        void run() throws Exception;
+    }
+
+    private static final Map<String, Check> ALL = new LinkedHashMap<>();
+
+    static {
+        ALL.put("timer-stall", TimerStallCheck::run);
+        ALL.put("journal-crash", JournalCrashCheck::run);
+    }
+
+    private Checks() {}
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int failed = 0;
+        for (Map.Entry<String, Check> e : ALL.entrySet()) {
+            if (args.length > 0 && !java.util.Arrays.asList(args).contains(e.getKey())) continue;
+            System.out.println("== " + e.getKey());
+            try {
+                e.getValue().run();
+                System.out.println("PASS " + e.getKey());
+            } catch (Throwable t) {
+                failed++;
+                System.out.println("FAIL " + e.getKey() + ": " + t);
+                t.printStackTrace();
+            }
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+}
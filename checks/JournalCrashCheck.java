@@ -0,0 +1,181 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Crash consistency of ProgressJournal: the journal is cut at every byte offset (and, as
+ * after a power cut on some file systems, padded with zeros), then recovered. The result
+ * must be exactly the state after the last complete event, and an event appended after
+ * recovery must survive the next recovery. A compaction interrupted before the journal was
+ * emptied must not count anything twice.
+ */
+final class JournalCrashCheck {
+
+    private static final LocalDate DAY_ONE = LocalDate.of(2024, 5, 6);
+
+    private JournalCrashCheck() {}
+
+    static void run() throws Exception {
+        File dir = Files.createTempDirectory("strawberry-journal-check").toFile();
+        try {
+            File snapshot = new File(dir, "progress.txt");
+            File journalFile = new File(dir, "progress.journal");
+
+            ProgressJournal.State base = new ProgressJournal.State();
+            base.date = DAY_ONE;
+            base.subjects.put("Math", progress(1, 25));
+            base.completedSessions = 1;
+            base.totalStudyMinutes = 25;
+            ProgressJournal journal = new ProgressJournal(snapshot, journalFile);
+            journal.recover();
+            journal.compact(base);
+
+            List<Object[]> events = events();
+            for (Object[] e : events) journal.append((String) e[0], Arrays.copyOfRange(e, 1, e.length));
+            journal.close();
+
+            byte[] log = Files.readAllBytes(journalFile.toPath());
+            List<Integer> lineEnds = new ArrayList<>();
+            for (int i = 0; i < log.length; i++) if (log[i] == '\n') lineEnds.add(i + 1);
+            Checks.check(lineEnds.size() == events.size(), "expected one journal line per event");
+
+            File work = new File(dir, "work");
+            work.mkdirs();
+            File workSnapshot = new File(work, snapshot.getName());
+            File workJournal = new File(work, journalFile.getName());
+            int offsets = 0;
+            for (int cut = 0; cut <= log.length; cut++) {
+                int complete = 0;
+                while (complete < lineEnds.size() && lineEnds.get(complete) <= cut) complete++;
+                for (int zeros : new int[]{0, 64}) {
+                    Files.copy(snapshot.toPath(), workSnapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    byte[] torn = new byte[cut + zeros]; // zero padded past the cut
+                    System.arraycopy(log, 0, torn, 0, cut);
+                    Files.write(workJournal.toPath(), torn);
+
+                    ProgressJournal recovered = new ProgressJournal(workSnapshot, workJournal);
+                    ProgressJournal.State state = recovered.recover();
+                    String expected = describe(apply(base, events.subList(0, complete)));
+                    Checks.check(describe(state).equals(expected),
+                        "cut at " + cut + " (+" + zeros + " zeros): got " + describe(state) + ", expected " + expected);
+
+                    recovered.append(ProgressJournal.COMPLETE, 25, "Math");
+                    recovered.close();
+                    ProgressJournal again = new ProgressJournal(workSnapshot, workJournal);
+                    ProgressJournal.State after = again.recover();
+                    again.close();
+                    List<Object[]> withAppend = new ArrayList<>(events.subList(0, complete));
+                    withAppend.add(new Object[]{ProgressJournal.COMPLETE, 25, "Math"});
+                    String expectedAfter = describe(apply(base, withAppend));
+                    Checks.check(describe(after).equals(expectedAfter),
+                        "append after cut at " + cut + " (+" + zeros + " zeros) was lost or corrupted: " + describe(after));
+                    offsets++;
+                }
+            }
+            System.out.println("  " + offsets + " torn journals (" + log.length + " bytes, " + events.size()
+                + " events) recovered to a consistent prefix");
+
+            interruptedCompaction(snapshot, journalFile, base, events);
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    // Snapshot replaced but the old journal still there, as if the app died inside compact()
+    private static void interruptedCompaction(File snapshot, File journalFile,
+                                              ProgressJournal.State base, List<Object[]> events) throws IOException {
+        ProgressJournal journal = new ProgressJournal(snapshot, journalFile);
+        ProgressJournal.State state = journal.recover();
+        byte[] oldJournal = Files.readAllBytes(journalFile.toPath());
+        journal.compact(state);
+        journal.close();
+        Files.write(journalFile.toPath(), oldJournal);
+
+        ProgressJournal reopened = new ProgressJournal(snapshot, journalFile);
+        ProgressJournal.State recovered = reopened.recover();
+        reopened.close();
+        String expected = describe(apply(base, events));
+        Checks.check(describe(recovered).equals(expected),
+            "events replayed twice after an interrupted compaction: " + describe(recovered));
+        System.out.println("  interrupted compaction recovered without double counting");
+    }
+
+    private static List<Object[]> events() {
+        List<Object[]> events = new ArrayList<>();
+        events.add(new Object[]{ProgressJournal.START, PomodoroSession.POMODORO, "Math"});
+        events.add(new Object[]{ProgressJournal.COMPLETE, 25, "Math"});
+        events.add(new Object[]{ProgressJournal.ADD, "Français 📚"});
+        events.add(new Object[]{ProgressJournal.COMPLETE, 25, "Français 📚"});
+        events.add(new Object[]{ProgressJournal.COMPLETE, 50, "Français 📚"});
+        events.add(new Object[]{ProgressJournal.DAY, DAY_ONE.plusDays(1)});
+        events.add(new Object[]{ProgressJournal.COMPLETE, 25, "Math"});
+        events.add(new Object[]{ProgressJournal.REMOVE, "Math"});
+        events.add(new Object[]{ProgressJournal.COMPLETE, 25, "Français 📚"});
+        events.add(new Object[]{ProgressJournal.ADD, "History"});
+        return events;
+    }
+
+    // What the events mean, written independently of ProgressJournal.replay()
+    private static ProgressJournal.State apply(ProgressJournal.State base, List<Object[]> events) {
+        ProgressJournal.State s = new ProgressJournal.State();
+        s.date = base.date;
+        s.completedSessions = base.completedSessions;
+        s.totalStudyMinutes = base.totalStudyMinutes;
+        base.subjects.forEach((name, sp) -> s.subjects.put(name, progress(sp.sessions, sp.minutes)));
+        for (Object[] e : events) {
+            switch ((String) e[0]) {
+                case ProgressJournal.DAY:
+                    s.date = (LocalDate) e[1];
+                    s.completedSessions = 0;
+                    s.totalStudyMinutes = 0;
+                    s.subjects.replaceAll((name, sp) -> progress(0, 0));
+                    break;
+                case ProgressJournal.ADD:
+                    s.subjects.putIfAbsent((String) e[1], progress(0, 0));
+                    break;
+                case ProgressJournal.REMOVE:
+                    s.subjects.remove((String) e[1]);
+                    break;
+                case ProgressJournal.COMPLETE:
+                    int minutes = (Integer) e[1];
+                    s.completedSessions++;
+                    s.totalStudyMinutes += minutes;
+                    SubjectProgress sp = s.subjects.get((String) e[2]);
+                    if (sp != null) {
+                        sp.sessions++;
+                        sp.minutes += minutes;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return s;
+    }
+
+    private static String describe(ProgressJournal.State s) {
+        Map<String, String> subjects = new LinkedHashMap<>();
+        s.subjects.forEach((name, sp) -> subjects.put(name, sp.sessions + "/" + sp.minutes));
+        return s.date + " " + s.completedSessions + "/" + s.totalStudyMinutes + " " + subjects;
+    }
+
+    private static SubjectProgress progress(int sessions, int minutes) {
+        SubjectProgress sp = new SubjectProgress();
+        sp.sessions = sessions;
+        sp.minutes = minutes;
+        return sp;
+    }
+
+    private static void deleteTree(File f) {
+        File[] children = f.listFiles();
+        if (children != null) for (File c : children) deleteTree(c);
+        f.delete();
+    }
+}
@@ -0,0 +1,105 @@
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocks the event thread, then the scheduler thread, in the middle of a countdown and
+ * checks the remaining time still follows the monotonic deadline: a stall may delay what
+ * is shown, but never moves the end of the session.
+ */
+final class TimerStallCheck {
+
+    private static final long COUNTDOWN_MS = 4000;
+    private static final long STALL_MS = 3000;
+    private static final long TOLERANCE_MS = 150;
+    private static final long REFRESH_SLACK_MS = 500; // Swing timer events may trail the deadline a little
+
+    private TimerStallCheck() {}
+
+    static void run() throws Exception {
+        edtStall();
+        schedulerStall();
+    }
+
+    // The refresh timer can't run while the EDT is blocked; afterwards it must show the deadline's time
+    private static void edtStall() throws Exception {
+        CountdownEngine countdown = new CountdownEngine(COUNTDOWN_MS, TimeUnit.MILLISECONDS);
+        long[] started = {0};
+        long[] finishedAt = {0};
+        long[] afterStall = {-1, 0}; // remaining nanos at the first tick after the stall, and when
+        CountDownLatch finished = new CountDownLatch(1);
+        boolean[] stalled = {false};
+
+        SwingUtilities.invokeAndWait(() -> {
+            started[0] = System.nanoTime();
+            countdown.start();
+            Timer refresh = new Timer(50, null);
+            refresh.addActionListener(e -> {
+                if (stalled[0] && afterStall[0] < 0) {
+                    afterStall[0] = countdown.remainingNanos();
+                    afterStall[1] = System.nanoTime();
+                }
+                if (countdown.isFinished()) {
+                    finishedAt[0] = System.nanoTime();
+                    refresh.stop();
+                    finished.countDown();
+                }
+            });
+            refresh.start();
+        });
+
+        Thread.sleep(500);
+        SwingUtilities.invokeLater(() -> {
+            sleep(STALL_MS);
+            stalled[0] = true;
+        });
+        Checks.check(finished.await(COUNTDOWN_MS + STALL_MS + 2000, TimeUnit.MILLISECONDS), "countdown never finished");
+
+        long start = started[0];
+        long expectedRemaining = Math.max(0, start + TimeUnit.MILLISECONDS.toNanos(COUNTDOWN_MS) - afterStall[1]);
+        long driftMs = Math.abs(afterStall[0] - expectedRemaining) / 1_000_000;
+        long endMs = (finishedAt[0] - start) / 1_000_000;
+        System.out.printf("  EDT blocked %d ms: remaining after stall off by %d ms, finished at %d ms (deadline %d ms)%n",
+            STALL_MS, driftMs, endMs, COUNTDOWN_MS);
+        Checks.check(driftMs <= TOLERANCE_MS, "remaining time drifted " + driftMs + " ms across the EDT stall");
+        Checks.check(endMs <= COUNTDOWN_MS + REFRESH_SLACK_MS, "countdown ended at " + endMs + " ms, pushed back by the stall");
+    }
+
+    // The session's wakeup runs late while the wheel thread is busy, but the countdown is over on time
+    private static void schedulerStall() throws Exception {
+        TimingWheel wheel = new TimingWheel();
+        try {
+            CountdownEngine countdown = new CountdownEngine(COUNTDOWN_MS, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            countdown.start();
+            CountDownLatch fired = new CountDownLatch(1);
+            wheel.schedule(fired::countDown, countdown.remainingNanos(), TimeUnit.NANOSECONDS);
+            wheel.schedule(() -> sleep(COUNTDOWN_MS + STALL_MS), 100, TimeUnit.MILLISECONDS);
+
+            Thread.sleep(1000);
+            long midNanos = System.nanoTime();
+            long expected = start + TimeUnit.MILLISECONDS.toNanos(COUNTDOWN_MS) - midNanos;
+            long driftMs = Math.abs(countdown.remainingNanos() - expected) / 1_000_000;
+
+            Thread.sleep(COUNTDOWN_MS - 1000 + TOLERANCE_MS);
+            boolean finishedOnTime = countdown.isFinished();
+            boolean wakeupStillBlocked = fired.getCount() == 1;
+            System.out.printf("  wheel blocked %d ms: remaining off by %d ms mid-stall, finished on time %b (wakeup blocked %b)%n",
+                COUNTDOWN_MS + STALL_MS, driftMs, finishedOnTime, wakeupStillBlocked);
+            Checks.check(driftMs <= TOLERANCE_MS, "remaining time drifted " + driftMs + " ms while the wheel was blocked");
+            Checks.check(finishedOnTime, "countdown not finished at its deadline");
+            Checks.check(fired.await(STALL_MS + 2000, TimeUnit.MILLISECONDS), "wakeup never ran after the stall");
+        } finally {
+            wheel.close();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}